@@ -0,0 +1,93 @@
+package io.github.crew102.rapidrake;
+
+import java.util.Random;
+
+import io.github.crew102.rapidrake.data.SmartWords;
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.opennlpUtils.ModelRegistry;
+
+/**
+ * Shared fixtures for the benchmarks: synthetic documents of a few sizes, the parameters RAKE is run with, and a
+ * helper for building a {@link RakeAlgorithm} from the models named by the <code>rapidrake.posModel</code> and
+ * <code>rapidrake.sentModel</code> system properties.
+ */
+final class BenchmarkDocs {
+  
+  static final String POS_MODEL = System.getProperty("rapidrake.posModel", "model-bin/en-pos-maxent.bin");
+  static final String SENT_MODEL = System.getProperty("rapidrake.sentModel", "model-bin/en-sent.bin");
+  static final String DELIMS = "[-,.?():;\"!/]";
+  static final String[] STOP_POS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+  
+  private static final String[] CONTENT_WORDS = {"machine", "learning", "keyword", "extraction", "algorithm",
+      "document", "customer", "service", "network", "model", "training", "data", "sentence", "detection", "system",
+      "linear", "constraints", "natural", "numbers", "compatibility", "criteria", "equations", "solutions", "minimal",
+      "generating", "sets", "upper", "bounds", "components", "types", "language", "processing", "dogs", "great",
+      "search", "engine", "index", "ranking", "retrieval", "corpus", "phrase", "frequency", "degree", "score"};
+  private static final String[] VERBS = {"is", "are", "was", "runs", "ran", "considered", "given", "shows",
+      "improves", "extracts", "uses", "found"};
+  private static final String[] PUNCT = {",", ".", ";", ":", "?", "!"};
+  
+  private BenchmarkDocs() {
+  }
+  
+  /**
+   * Build a deterministic pseudo-English document of roughly <code>approxChars</code> characters.
+   */
+  static String document(int approxChars, long seed) {
+    
+    Random random = new Random(seed);
+    String[] stopWords = new SmartWords().getSmartWords();
+    StringBuilder buff = new StringBuilder(approxChars + 64);
+    
+    while (buff.length() < approxChars) {
+      int sentLength = 6 + random.nextInt(15);
+      for (int i = 0; i < sentLength; i++) {
+        int pick = random.nextInt(10);
+        String word;
+        if (pick < 5) {
+          word = CONTENT_WORDS[random.nextInt(CONTENT_WORDS.length)];
+        } else if (pick < 8) {
+          word = stopWords[random.nextInt(stopWords.length)];
+        } else {
+          word = VERBS[random.nextInt(VERBS.length)];
+        }
+        if (i == 0) {
+          buff.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        } else {
+          buff.append(' ').append(word);
+        }
+        if (i < sentLength - 1 && random.nextInt(12) == 0) {
+          buff.append(PUNCT[random.nextInt(3)]);
+        }
+      }
+      buff.append(PUNCT[1 + random.nextInt(PUNCT.length - 1)]).append(' ');
+    }
+    
+    return buff.toString();
+  }
+  
+  /**
+   * @param size one of "small" (~200 chars), "medium" (~5KB), or "large" (~100KB)
+   */
+  static String document(String size) {
+    switch (size) {
+      case "small":
+        return document(200, 42);
+      case "medium":
+        return document(5 * 1024, 42);
+      case "large":
+        return document(100 * 1024, 42);
+      default:
+        throw new IllegalArgumentException("Unknown document size: " + size);
+    }
+  }
+  
+  static RakeParams params(boolean stem) {
+    return new RakeParams(new SmartWords().getSmartWords(), STOP_POS, 1, stem, DELIMS);
+  }
+  
+  static RakeAlgorithm pooledAlgorithm(RakeParams params) throws java.io.IOException {
+    return new RakeAlgorithm(params, ModelRegistry.getPosModel(POS_MODEL), ModelRegistry.getSentModel(SENT_MODEL));
+  }
+  
+}
@@ -0,0 +1,63 @@
+package io.github.crew102.rapidrake;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Latency of RAKE on one ~1MB document, run sequentially with {@link RakeAlgorithm#rake(String)} and in parallel
+ * with {@link RakeAlgorithm#rakeParallel(String, ForkJoinPool)} on pools of a few sizes. Apart from sentence
+ * detection, which stays sequential, the parallel latency should fall roughly in proportion to the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LongDocumentBenchmark {
+  
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+  
+  private RakeAlgorithm rakeAlg;
+  private ForkJoinPool pool;
+  private String txtEl;
+  
+  @Setup
+  public void setup() throws java.io.IOException {
+    rakeAlg = BenchmarkDocs.pooledAlgorithm(BenchmarkDocs.params(true));
+    pool = new ForkJoinPool(threads);
+    txtEl = BenchmarkDocs.document(1024 * 1024, 42);
+  }
+  
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+  
+  @Benchmark
+  public Result sequential() {
+    return rakeAlg.rake(txtEl);
+  }
+  
+  @Benchmark
+  public Result parallel() {
+    return rakeAlg.rakeParallel(txtEl, pool);
+  }
+  
+}
@@ -0,0 +1,89 @@
+package io.github.crew102.rapidrake;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.crew102.rapidrake.model.Keyword;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Single-threaded timings for each stage of the RAKE pipeline, plus the end-to-end {@link RakeAlgorithm#rake} call.
+ * Run with <code>-prof gc</code> to see the allocation rate of each stage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RakeStageBenchmark {
+  
+  @Param({"small", "medium", "large"})
+  public String docSize;
+  
+  @Param({"false", "true"})
+  public boolean stem;
+  
+  private RakeAlgorithm rakeAlg;
+  private RakeScratch scratch;
+  private String txtEl;
+  private String[] tokens;
+  private ArrayList<Keyword> candidates;
+  private Result result;
+  
+  @Setup
+  public void setup() throws java.io.IOException {
+    rakeAlg = BenchmarkDocs.pooledAlgorithm(BenchmarkDocs.params(stem));
+    scratch = rakeAlg.newScratch();
+    txtEl = BenchmarkDocs.document(docSize);
+    tokens = rakeAlg.getTokens(txtEl, scratch);
+    candidates = rakeAlg.idCandidateKeywords(tokens, scratch);
+    result = rakeAlg.getResult(rakeAlg.calcKeywordScores(candidates, scratch));
+  }
+  
+  @Benchmark
+  public String[] getTokens() {
+    return rakeAlg.getTokens(txtEl, scratch);
+  }
+  
+  @Benchmark
+  public ArrayList<Keyword> idCandidateKeywords() {
+    return rakeAlg.idCandidateKeywords(tokens, scratch);
+  }
+  
+  @Benchmark
+  public ArrayList<Keyword> calcKeywordScores() {
+    return rakeAlg.calcKeywordScores(candidates, scratch);
+  }
+  
+  @Benchmark
+  public Result getResult() {
+    return rakeAlg.getResult(candidates);
+  }
+  
+  @Benchmark
+  public Result distinct() {
+    // distinct() works in place, so each invocation gets its own copy of the result
+    Result copy = new Result(result.getFullKeywords().clone(), result.getStemmedKeywords().clone(), 
+                             result.getScores().clone());
+    return copy.distinct();
+  }
+  
+  @Benchmark
+  public Result rake() {
+    return rakeAlg.rake(txtEl);
+  }
+  
+}
@@ -0,0 +1,65 @@
+package io.github.crew102.rapidrake;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.model.Result;
+import io.github.crew102.rapidrake.opennlpUtils.Tagger;
+import io.github.crew102.rapidrake.opennlpUtils.SentDetector;
+
+/**
+ * End-to-end {@link RakeAlgorithm#rake} throughput with many threads sharing one {@link RakeAlgorithm}. The
+ * <code>pooled</code> mode gives each thread its own tagger and sentence detector; the <code>shared</code> mode uses a
+ * single tagger and detector behind a lock, as the <code>POSTaggerME</code>/<code>SentenceDetectorME</code>
+ * constructor does. Vary the thread count with <code>-t</code> (e.g., <code>-t 1</code>, <code>-t 4</code>, 
+ * <code>-t 16</code>) to see how each mode scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class RakeThroughputBenchmark {
+  
+  @Param({"small", "medium"})
+  public String docSize;
+  
+  @Param({"pooled", "shared"})
+  public String mode;
+  
+  private RakeAlgorithm rakeAlg;
+  private String txtEl;
+  
+  @Setup
+  public void setup() throws java.io.IOException {
+    RakeParams params = BenchmarkDocs.params(true);
+    if (mode.equals("pooled")) {
+      rakeAlg = BenchmarkDocs.pooledAlgorithm(params);
+    } else {
+      rakeAlg = new RakeAlgorithm(params, new Tagger(BenchmarkDocs.POS_MODEL).getPosTagger(), 
+                                  new SentDetector(BenchmarkDocs.SENT_MODEL).getSentDetector());
+    }
+    txtEl = BenchmarkDocs.document(docSize);
+  }
+  
+  @Benchmark
+  public Result rake() {
+    return rakeAlg.rake(txtEl);
+  }
+  
+}
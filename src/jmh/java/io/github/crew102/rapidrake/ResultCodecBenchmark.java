@@ -0,0 +1,149 @@
+package io.github.crew102.rapidrake;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.crew102.rapidrake.codec.EncodedResult;
+import io.github.crew102.rapidrake.codec.ResultReader;
+import io.github.crew102.rapidrake.codec.ResultWriter;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Time to write and read back a batch of 1,000 results with the binary codec, compared with writing them as JSON. 
+ * The JSON encoder is a minimal hand-written one (rapidrake has no JSON dependency), so it's a lower bound on what a 
+ * JSON library would cost. Results are synthetic, so this benchmark doesn't need the OpenNLP models.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultCodecBenchmark {
+  
+  private static final String[] WORDS = {"machine", "learning", "keyword", "extraction", "algorithm", "document",
+      "customer", "service", "network", "model", "training", "data", "sentence", "detection", "system", "linear",
+      "constraints", "natural", "numbers", "compatibility", "criteria", "equations", "solutions", "minimal"};
+  
+  private List<Result> results;
+  private byte[] encoded;
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+  
+  @Setup
+  public void setup() throws java.io.IOException {
+    
+    Random random = new Random(42);
+    results = new ArrayList<Result>();
+    for (int r = 0; r < 1000; r++) {
+      int n = 5 + random.nextInt(30);
+      String[] full = new String[n];
+      String[] stemmed = new String[n];
+      float[] scores = new float[n];
+      for (int i = 0; i < n; i++) {
+        full[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        stemmed[i] = full[i];
+        scores[i] = 1 + random.nextFloat() * 8;
+      }
+      results.add(new Result(full, stemmed, scores));
+    }
+    
+    encoded = writeBinary();
+  }
+  
+  @Benchmark
+  public byte[] writeBinary() throws java.io.IOException {
+    out.reset();
+    try (ResultWriter writer = new ResultWriter(out)) {
+      writer.writeAll(results);
+    }
+    return out.toByteArray();
+  }
+  
+  @Benchmark
+  public byte[] writeJson() throws java.io.IOException {
+    out.reset();
+    try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      writer.write('[');
+      for (int r = 0; r < results.size(); r++) {
+        Result result = results.get(r);
+        writer.write(r == 0 ? "{\"keywords\":[" : ",{\"keywords\":[");
+        for (int i = 0; i < result.getFullKeywords().length; i++) {
+          if (i > 0) {
+            writer.write(',');
+          }
+          writer.write("{\"full\":");
+          writeJsonString(writer, result.getFullKeywords()[i]);
+          writer.write(",\"stemmed\":");
+          writeJsonString(writer, result.getStemmedKeywords()[i]);
+          writer.write(",\"score\":");
+          writer.write(Float.toString(result.getScores()[i]));
+          writer.write('}');
+        }
+        writer.write("]}");
+      }
+      writer.write(']');
+    }
+    return out.toByteArray();
+  }
+  
+  @Benchmark
+  public double readBinaryScores() throws java.io.IOException {
+    double sum = 0;
+    try (ResultReader reader = new ResultReader(new ByteArrayInputStream(encoded))) {
+      EncodedResult result;
+      while ((result = reader.next()) != null) {
+        for (int i = 0; i < result.size(); i++) {
+          sum += result.getScore(i);
+        }
+      }
+    }
+    return sum;
+  }
+  
+  @Benchmark
+  public int readBinaryFull() throws java.io.IOException {
+    int numKeywords = 0;
+    try (ResultReader reader = new ResultReader(new ByteArrayInputStream(encoded))) {
+      Result result;
+      while ((result = reader.read()) != null) {
+        numKeywords += result.getFullKeywords().length;
+      }
+    }
+    return numKeywords;
+  }
+  
+  private static void writeJsonString(Writer writer, String str) throws java.io.IOException {
+    writer.write('"');
+    for (int i = 0; i < str.length(); i++) {
+      char ch = str.charAt(i);
+      if (ch == '"' || ch == '\\') {
+        writer.write('\\');
+        writer.write(ch);
+      } else if (ch < 0x20) {
+        writer.write(String.format("\\u%04x", (int) ch));
+      } else {
+        writer.write(ch);
+      }
+    }
+    writer.write('"');
+  }
+  
+}
@@ -0,0 +1,108 @@
+package io.github.crew102.rapidrake;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.model.Result;
+import io.github.crew102.rapidrake.opennlpUtils.ModelRegistry;
+import io.github.crew102.rapidrake.opennlpUtils.SentDetectorPool;
+import io.github.crew102.rapidrake.opennlpUtils.TaggerPool;
+import io.github.crew102.rapidrake.tagging.RuleBasedSentenceSplitter;
+import io.github.crew102.rapidrake.tagging.SentenceSplitter;
+
+/**
+ * The cost of each sentence splitting strategy, with maxent POS tagging in every case: the maxent detector 
+ * (<code>maxent</code>), {@link RuleBasedSentenceSplitter} (<code>rules</code>) and {@link SentenceSplitter#NONE} 
+ * (<code>none</code>). 
+ * 
+ * <p>Splitting only changes the context the tagger sees, so the strategies differ in accuracy only through the 
+ * keywords that get tagged differently. To quantify that, setup prints the share of distinct keywords (over 20 
+ * medium-sized documents) that each strategy has in common with the maxent detector, as 
+ * <code>|keywords &#8745; maxent keywords| / |keywords &#8746; maxent keywords|</code>, summed over the documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentenceSplitterBenchmark {
+  
+  @Param({"small", "medium"})
+  public String docSize;
+  
+  @Param({"maxent", "rules", "none"})
+  public String splitter;
+  
+  private RakeAlgorithm rakeAlg;
+  private String txtEl;
+  
+  @Setup
+  public void setup() throws java.io.IOException {
+    RakeParams params = BenchmarkDocs.params(true);
+    TaggerPool tagger = new TaggerPool(ModelRegistry.getPosModel(BenchmarkDocs.POS_MODEL));
+    rakeAlg = new RakeAlgorithm(params, tagger, splitter(splitter));
+    txtEl = BenchmarkDocs.document(docSize);
+    
+    RakeAlgorithm maxent = new RakeAlgorithm(params, tagger, splitter("maxent"));
+    HashSet<String> common = new HashSet<String>();
+    HashSet<String> all = new HashSet<String>();
+    for (long seed = 0; seed < 20; seed++) {
+      String doc = BenchmarkDocs.document(5 * 1024, seed);
+      HashSet<String> expected = keywords(maxent.rake(doc));
+      HashSet<String> actual = keywords(rakeAlg.rake(doc));
+      for (String keyword : actual) {
+        String key = seed + ":" + keyword;
+        all.add(key);
+        if (expected.contains(keyword)) {
+          common.add(key);
+        }
+      }
+      for (String keyword : expected) {
+        all.add(seed + ":" + keyword);
+      }
+    }
+    System.out.printf("%n%s: %.2f%% of keywords in common with the maxent detector%n", splitter, 
+                      100.0 * common.size() / all.size());
+  }
+  
+  @Benchmark
+  public Result rake() {
+    return rakeAlg.rake(txtEl);
+  }
+  
+  private static SentenceSplitter splitter(String name) throws java.io.IOException {
+    switch (name) {
+      case "maxent":
+        return new SentDetectorPool(ModelRegistry.getSentModel(BenchmarkDocs.SENT_MODEL));
+      case "rules":
+        return new RuleBasedSentenceSplitter();
+      case "none":
+        return SentenceSplitter.NONE;
+      default:
+        throw new IllegalArgumentException("Unknown splitter: " + name);
+    }
+  }
+  
+  private static HashSet<String> keywords(Result result) {
+    HashSet<String> keywords = new HashSet<String>();
+    for (String keyword : result.getFullKeywords()) {
+      keywords.add(keyword);
+    }
+    return keywords;
+  }
+  
+}
@@ -0,0 +1,49 @@
+package io.github.crew102.rapidrake;
+
+/**
+ * An append-only pool of keyword strings, each of which is given a dense int id (0, 1, 2, ...) the first time it's 
+ * added. A dictionary can be shared by any number of {@link ResultBatch}es, so that each distinct keyword is stored 
+ * once no matter how many documents it occurs in. Not thread safe.
+ */
+public final class KeywordDictionary {
+  
+  private final WordIndex index = new WordIndex();
+  
+  /**
+   * Get the id of a keyword, adding the keyword to the dictionary if it isn't already in it.
+   * 
+   * @param keyword the keyword
+   * @return the keyword's id
+   */
+  public int intern(String keyword) {
+    return index.intern(keyword);
+  }
+  
+  /**
+   * @param keyword a keyword
+   * @return the keyword's id, or -1 if it isn't in the dictionary
+   */
+  public int getId(String keyword) {
+    return index.get(keyword);
+  }
+  
+  /**
+   * @param id a keyword id
+   * @return the keyword with the given id
+   * @throws IndexOutOfBoundsException if there's no keyword with the given id
+   */
+  public String getKeyword(int id) {
+    if (id < 0 || id >= index.size()) {
+      throw new IndexOutOfBoundsException("Index: " + id + ", size: " + index.size());
+    }
+    return index.word(id);
+  }
+  
+  /**
+   * @return the number of keywords in the dictionary
+   */
+  public int size() {
+    return index.size();
+  }
+  
+}
@@ -0,0 +1,83 @@
+package io.github.crew102.rapidrake;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.crew102.rapidrake.model.Keyword;
+
+/**
+ * Scores a document's candidate keywords the RAKE way: each word gets a score of <code>(degree + frequency) /
+ * frequency</code>, where the frequency is the number of times the word appears across all keywords and the degree
+ * is the number of other words it co-occurs with in those keywords, and each keyword's score is the sum of its 
+ * words' scores.
+ * 
+ * <p>Each distinct word is mapped to an int id once, and frequencies, degrees and word scores are kept in primitive 
+ * arrays indexed by that id, so scoring doesn't box numbers or hash a word more than once per occurrence. A scorer 
+ * keeps its arrays between calls; reusing one scorer for many documents means that, once its arrays have grown to 
+ * fit the largest document, scoring allocates nothing. A scorer must only be used by one thread at a time.
+ */
+public final class KeywordScorer {
+  
+  private final WordIndex wordIndex = new WordIndex();
+  private int[] wordIds = new int[256];
+  private int[] freq = new int[64];
+  private int[] deg = new int[64];
+  private float[] wordScores = new float[64];
+  
+  /**
+   * Calculate the score of each keyword in a document, storing it on the keyword.
+   * 
+   * @param keywords the candidate keywords found in a document
+   * @param useStems whether the keywords' stemmed tokens (rather than their full tokens) should be scored
+   * @see Keyword#getScore
+   */
+  public void score(List<Keyword> keywords, boolean useStems) {
+    
+    wordIndex.clear();
+    int total = 0;
+    
+    for (Keyword oneKey : keywords) {
+      String[] keysTokens = useStems ? oneKey.getKeyStemmedAry() : oneKey.getKeyStringAry();
+      if (total + keysTokens.length > wordIds.length) {
+        wordIds = Arrays.copyOf(wordIds, Math.max(wordIds.length * 2, total + keysTokens.length));
+      }
+      for (String aTok : keysTokens) {
+        wordIds[total++] = wordIndex.intern(aTok);
+      }
+    }
+    
+    int numWords = wordIndex.size();
+    if (numWords > freq.length) {
+      int capacity = Math.max(freq.length * 2, numWords);
+      freq = new int[capacity];
+      deg = new int[capacity];
+      wordScores = new float[capacity];
+    } else {
+      Arrays.fill(freq, 0, numWords, 0);
+      Arrays.fill(deg, 0, numWords, 0);
+    }
+    
+    int pos = 0;
+    for (Keyword oneKey : keywords) {
+      int length = oneKey.getKeyStringAry().length;
+      int degTe = length - 1;
+      for (int i = 0; i < length; i++) {
+        int id = wordIds[pos++];
+        freq[id]++;
+        deg[id] += degTe;
+      }
+    }
+    
+    for (int id = 0; id < numWords; id++) {
+      float wordFreq = (float) freq[id];
+      wordScores[id] = (deg[id] + wordFreq) / wordFreq;
+    }
+    
+    pos = 0;
+    for (Keyword oneKey : keywords) {
+      oneKey.sumScore(wordScores, wordIds, pos);
+      pos += oneKey.getKeyStringAry().length;
+    }
+  }
+  
+}
@@ -0,0 +1,289 @@
+package io.github.crew102.rapidrake;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import io.github.crew102.rapidrake.model.Keyword;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Running RAKE statistics for text that's processed a piece at a time: the frequency and degree of every distinct
+ * word, and every distinct candidate keyword along with the number of times it has occurred and the number of 
+ * documents it has occurred in.
+ * 
+ * <p>Candidate keywords can be added in any number of batches; {@link #toResult} then scores the distinct keywords 
+ * exactly the way {@link RakeAlgorithm#rake} would have if all of the text had been processed at once. The memory 
+ * used grows with the number of distinct words and keywords, not with the amount of text.
+ * 
+ * <p>Statistics gathered separately (e.g., by different threads, or over different shards of a corpus) can be 
+ * combined with {@link #merge}. Merging is associative, so partial statistics can be combined in any grouping, and 
+ * the merged statistics are the same as if every document had been added to one object. A single KeywordStats object
+ * isn't thread safe.
+ */
+public class KeywordStats {
+  
+  private final boolean useStems;
+  private final WordIndex words = new WordIndex();
+  private int[] wordFreq = new int[64];
+  private int[] wordDeg = new int[64];
+  
+  private final HashMap<String, Integer> phraseSlots = new HashMap<String, Integer>();
+  private final ArrayList<String> phraseFull = new ArrayList<String>();
+  private final ArrayList<String> phraseStemmed = new ArrayList<String>();
+  private final ArrayList<int[]> phraseWordIds = new ArrayList<int[]>();
+  private int[] phraseCounts = new int[64];
+  private int[] phraseDocFreqs = new int[64];
+  private int[] phraseLastDoc = new int[64];
+  private int numDocs;
+  
+  /**
+   * Constructor.
+   * 
+   * @param useStems whether the keywords' stemmed tokens (rather than their full tokens) should be scored. This 
+   *        should match {@link io.github.crew102.rapidrake.model.RakeParams#shouldStem}.
+   */
+  public KeywordStats(boolean useStems) {
+    this.useStems = useStems;
+  }
+  
+  /**
+   * Add one occurrence of a candidate keyword. The occurrence isn't counted towards any document; use 
+   * {@link #addDocument} to add a whole document's keywords.
+   * 
+   * @param keyword the candidate keyword
+   */
+  public void add(Keyword keyword) {
+    add(keyword, -1);
+  }
+  
+  /**
+   * Add one occurrence of each of a list of candidate keywords.
+   * 
+   * @param keywords the candidate keywords
+   */
+  public void addAll(List<Keyword> keywords) {
+    for (Keyword keyword : keywords) {
+      add(keyword, -1);
+    }
+  }
+  
+  /**
+   * Add the candidate keywords of one document, counting the document towards the document frequency of each 
+   * distinct keyword in it.
+   * 
+   * @param keywords all of the candidate keywords found in the document
+   */
+  public void addDocument(List<Keyword> keywords) {
+    int doc = numDocs++;
+    for (Keyword keyword : keywords) {
+      add(keyword, doc);
+    }
+  }
+  
+  /**
+   * Add another set of statistics to this one. <code>other</code> isn't changed.
+   * 
+   * @param other the statistics to add
+   * @return this object
+   * @throws IllegalArgumentException if the two sets of statistics don't agree on whether to use stems
+   */
+  public KeywordStats merge(KeywordStats other) {
+    
+    if (other.useStems != useStems) {
+      throw new IllegalArgumentException("Can't merge stemmed and unstemmed keyword statistics");
+    }
+    
+    int[] idMap = new int[other.words.size()];
+    for (int otherId = 0; otherId < idMap.length; otherId++) {
+      int id = internWord(other.words.word(otherId));
+      wordFreq[id] += other.wordFreq[otherId];
+      wordDeg[id] += other.wordDeg[otherId];
+      idMap[otherId] = id;
+    }
+    
+    for (int p = 0; p < other.phraseFull.size(); p++) {
+      String full = other.phraseFull.get(p);
+      Integer slot = phraseSlots.get(full);
+      if (slot == null) {
+        int[] otherIds = other.phraseWordIds.get(p);
+        int[] ids = new int[otherIds.length];
+        for (int i = 0; i < ids.length; i++) {
+          ids[i] = idMap[otherIds[i]];
+        }
+        slot = newPhrase(full, other.phraseStemmed.get(p), ids);
+      }
+      phraseCounts[slot] += other.phraseCounts[p];
+      phraseDocFreqs[slot] += other.phraseDocFreqs[p];
+    }
+    
+    numDocs += other.numDocs;
+    return this;
+  }
+  
+  /**
+   * @return the number of distinct words seen so far
+   */
+  public int getNumWords() {
+    return words.size();
+  }
+  
+  /**
+   * @return the number of distinct candidate keywords seen so far
+   */
+  public int getNumKeywords() {
+    return phraseFull.size();
+  }
+  
+  /**
+   * @return the number of documents added with {@link #addDocument}, including those of merged statistics
+   */
+  public int getNumDocs() {
+    return numDocs;
+  }
+  
+  /**
+   * @param keyword the full form of a keyword
+   * @return the number of documents the keyword occurred in
+   */
+  public int getDocFreq(String keyword) {
+    Integer slot = phraseSlots.get(keyword);
+    return slot == null ? 0 : phraseDocFreqs[slot];
+  }
+  
+  /**
+   * Score the distinct keywords seen so far.
+   * 
+   * @return a Result with one entry per distinct keyword, in the order the keywords were first added. The scores are 
+   *         the same as those of <code>rake(allText).distinct()</code>, and {@link Result#getCounts} gives the 
+   *         number of times each keyword occurred.
+   */
+  public Result toResult() {
+    
+    float[] wordScores = wordScores();
+    int numPhrases = phraseFull.size();
+    float[] scores = new float[numPhrases];
+    
+    for (int p = 0; p < numPhrases; p++) {
+      scores[p] = phraseScore(p, wordScores);
+    }
+    
+    return new Result(phraseFull.toArray(new String[numPhrases]), phraseStemmed.toArray(new String[numPhrases]), 
+                      scores, Arrays.copyOf(phraseCounts, numPhrases));
+  }
+  
+  /**
+   * Rank the distinct keywords seen so far by their RAKE score weighted by how many documents they occur in. A 
+   * keyword's weighted score is <code>score * ln(1 + docFreq)</code>, so keywords that are prominent in many 
+   * documents rank above keywords that are prominent in only a few.
+   * 
+   * @param topK the maximum number of keywords to return
+   * @return a Result with at most <code>topK</code> keywords, sorted by descending weighted score (which is what 
+   *         {@link Result#getScores} holds). {@link Result#getCounts} gives the number of times each keyword 
+   *         occurred.
+   * @throws IllegalArgumentException if <code>topK</code> is less than 1
+   */
+  public Result toDocFreqWeightedResult(int topK) {
+    
+    if (topK < 1) {
+      throw new IllegalArgumentException("topK must be at least 1");
+    }
+    
+    float[] wordScores = wordScores();
+    int numPhrases = phraseFull.size();
+    final float[] weighted = new float[numPhrases];
+    Integer[] order = new Integer[numPhrases];
+    
+    for (int p = 0; p < numPhrases; p++) {
+      weighted[p] = (float) (phraseScore(p, wordScores) * Math.log1p(phraseDocFreqs[p]));
+      order[p] = p;
+    }
+    Arrays.sort(order, (a, b) -> Float.compare(weighted[b], weighted[a]));
+    
+    int size = Math.min(topK, numPhrases);
+    String[] full = new String[size];
+    String[] stemmed = new String[size];
+    float[] scores = new float[size];
+    int[] counts = new int[size];
+    for (int i = 0; i < size; i++) {
+      int p = order[i];
+      full[i] = phraseFull.get(p);
+      stemmed[i] = phraseStemmed.get(p);
+      scores[i] = weighted[p];
+      counts[i] = phraseCounts[p];
+    }
+    
+    return new Result(full, stemmed, scores, counts);
+  }
+  
+  private void add(Keyword keyword, int doc) {
+    
+    String[] keysTokens = useStems ? keyword.getKeyStemmedAry() : keyword.getKeyStringAry();
+    int degTe = keysTokens.length - 1;
+    
+    Integer slot = phraseSlots.get(keyword.getKeyString());
+    int[] ids = slot == null ? new int[keysTokens.length] : null;
+    
+    for (int i = 0; i < keysTokens.length; i++) {
+      int id = internWord(keysTokens[i]);
+      wordFreq[id]++;
+      wordDeg[id] += degTe;
+      if (ids != null) {
+        ids[i] = id;
+      }
+    }
+    
+    if (slot == null) {
+      slot = newPhrase(keyword.getKeyString(), keyword.getStemmedString(), ids);
+    }
+    phraseCounts[slot]++;
+    if (doc >= 0 && phraseLastDoc[slot] != doc) {
+      phraseLastDoc[slot] = doc;
+      phraseDocFreqs[slot]++;
+    }
+  }
+  
+  private int internWord(String word) {
+    int id = words.intern(word);
+    if (id == wordFreq.length) {
+      wordFreq = Arrays.copyOf(wordFreq, id * 2);
+      wordDeg = Arrays.copyOf(wordDeg, id * 2);
+    }
+    return id;
+  }
+  
+  private int newPhrase(String full, String stemmed, int[] ids) {
+    int slot = phraseFull.size();
+    phraseSlots.put(full, slot);
+    phraseFull.add(full);
+    phraseStemmed.add(stemmed);
+    phraseWordIds.add(ids);
+    if (slot == phraseCounts.length) {
+      phraseCounts = Arrays.copyOf(phraseCounts, slot * 2);
+      phraseDocFreqs = Arrays.copyOf(phraseDocFreqs, slot * 2);
+      phraseLastDoc = Arrays.copyOf(phraseLastDoc, slot * 2);
+    }
+    phraseLastDoc[slot] = -1;
+    return slot;
+  }
+  
+  private float phraseScore(int p, float[] wordScores) {
+    float sum = 0;
+    for (int id : phraseWordIds.get(p)) {
+      sum = wordScores[id] + sum;
+    }
+    return sum;
+  }
+  
+  private float[] wordScores() {
+    int numWords = words.size();
+    float[] wordScores = new float[numWords];
+    for (int id = 0; id < numWords; id++) {
+      float freq = (float) wordFreq[id];
+      wordScores[id] = (wordDeg[id] + freq) / freq;
+    }
+    return wordScores;
+  }
+  
+}
@@ -1,20 +1,38 @@
 package io.github.crew102.rapidrake;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetectorME;
-import opennlp.tools.stemmer.snowball.SnowballStemmer;
+import opennlp.tools.sentdetect.SentenceModel;
 import opennlp.tools.tokenize.WhitespaceTokenizer;
 
 import io.github.crew102.rapidrake.model.*;
 import io.github.crew102.rapidrake.opennlpUtils.SentDetector;
+import io.github.crew102.rapidrake.opennlpUtils.SentDetectorPool;
 import io.github.crew102.rapidrake.opennlpUtils.Tagger;
+import io.github.crew102.rapidrake.opennlpUtils.TaggerPool;
+import io.github.crew102.rapidrake.tagging.SentenceSplitter;
+import io.github.crew102.rapidrake.tagging.TokenTagger;
 
 /**
  * The logic/implementation of the Rapid Automatic Keyword Extraction (RAKE) algorithm. The class's API includes:
@@ -22,7 +40,12 @@ import io.github.crew102.rapidrake.opennlpUtils.Tagger;
  * <ul>
  * <li> A constructor which sets the algorithm's parameters (stored in a {@link RakeParams} object) and specifies the 
  *      POS tagging and sentence detection models
- * <li> The {@link rake} method, which runs RAKE on a string
+ * <li> The {@link rake} methods, which run RAKE on a string and return either every keyword or only the top keywords
+ * <li> The {@link rakeAll} methods, which run RAKE over a batch of strings in parallel
+ * <li> The {@link rakeAsync} methods, which run RAKE on a string without blocking the caller
+ * <li> The {@link rakeIncremental} methods, which run RAKE over text that's too big to hold in memory as one string
+ * <li> The {@link setListener} method, which registers a {@link RakeListener} to instrument the pipeline
+ * <li> The {@link setResultCache} method, which puts a {@link ResultCache} in front of {@link rake}
  * <li> The {@link getResult} method, which takes an array of {@link Keyword} objects and converts their relevant 
  *      instance variables to primitive arrays
  * </ul> 
@@ -31,9 +54,20 @@ import io.github.crew102.rapidrake.opennlpUtils.Tagger;
  */
 public class RakeAlgorithm {
   
+  /**
+   * The default number of characters that {@link #rakeIncremental(Reader)} reads at a time.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+  
   private final RakeParams rakeParams;
-  private final POSTaggerME tagger;
-  private final SentenceDetectorME sentDetector;
+  private final TokenTagger tagger;
+  private final SentenceSplitter splitter;
+  private final boolean tagsNeeded;
+  private final ThreadLocal<RakeScratch> scratch = ThreadLocal.withInitial(this::newScratch);
+  private volatile RakeListener listener = RakeListener.NO_OP;
+  private volatile ResultCache resultCache;
+  private long cacheFingerprint;
+  private final Function<String, Result> uncachedRake = this::rakeUncached;
   
   /**
    * Constructor.
@@ -45,9 +79,7 @@ public class RakeAlgorithm {
    * @throws java.io.IOException if either of the URLs are invalid
    */
   public RakeAlgorithm(RakeParams rakeParams, String taggerModelUrl, String sentDectModelUrl) throws java.io.IOException {
-    this.rakeParams = rakeParams;
-    this.tagger = new Tagger(taggerModelUrl).getPosTagger();
-    this.sentDetector = new SentDetector(sentDectModelUrl).getSentDetector();
+    this(rakeParams, new Tagger(taggerModelUrl).getPosModel(), new SentDetector(sentDectModelUrl).getSentModel());
   }
 
   /**
@@ -60,9 +92,7 @@ public class RakeAlgorithm {
    * @throws java.io.IOException if either of the input streams are invalid
    */
   public RakeAlgorithm(RakeParams rakeParams, InputStream taggerStream, InputStream sentDectStream) throws java.io.IOException {
-    this.rakeParams = rakeParams;
-    this.tagger = new Tagger(taggerStream).getPosTagger();
-    this.sentDetector = new SentDetector(sentDectStream).getSentDetector();
+    this(rakeParams, new Tagger(taggerStream).getPosModel(), new SentDetector(sentDectStream).getSentModel());
   }
 
   /**
@@ -70,6 +100,11 @@ public class RakeAlgorithm {
    * to avoid the overhead of creating the POS tagger and sentence detector
    * models each time you create a new instance of RakeAlgorithm.
    *
+   * <p>Note that the tagger and sentence detector passed in here are shared by
+   * every thread that calls {@link #rake}, so concurrent calls are serialized
+   * on them. Use {@link #RakeAlgorithm(RakeParams, POSModel, SentenceModel)}
+   * if you'll be calling {@link #rake} from many threads.
+   *
    * <pre>
    * String POStaggerURL = "model-bin/en-pos-maxent.bin";
    * String SentDetectURL = "model-bin/en-sent.bin";
@@ -89,8 +124,93 @@ public class RakeAlgorithm {
    */
   public RakeAlgorithm(RakeParams rakeParams, POSTaggerME posTaggerME, SentenceDetectorME sentDetectorME) {
     this.rakeParams = rakeParams;
-    this.tagger = posTaggerME;
-    this.sentDetector = sentDetectorME;
+    this.tagger = new TaggerPool(posTaggerME);
+    this.splitter = new SentDetectorPool(sentDetectorME);
+    this.tagsNeeded = rakeParams.needsPOSTags();
+  }
+
+  /**
+   * Constructor. The models are shared, but each thread that calls {@link #rake}
+   * gets its own POS tagger and sentence detector built from them, so
+   * concurrent calls to {@link #rake} don't contend on a lock.
+   *
+   * <pre>
+   * POSModel posModel = new Tagger(POStaggerURL).getPosModel();
+   * SentenceModel sentModel = new SentDetector(SentDetectURL).getSentModel();
+   * RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posModel, sentModel);
+   * </pre>
+   *
+   * @param rakeParams the parameters RAKE will use
+   * @param posModel the trained POS tagging model
+   * @param sentModel the trained sentence detection model
+   * @see RakeParams
+   * @see TaggerPool
+   * @see SentDetectorPool
+   */
+  public RakeAlgorithm(RakeParams rakeParams, POSModel posModel, SentenceModel sentModel) {
+    this.rakeParams = rakeParams;
+    this.tagger = new TaggerPool(posModel);
+    this.splitter = new SentDetectorPool(sentModel);
+    this.tagsNeeded = rakeParams.needsPOSTags();
+  }
+  
+  /**
+   * Constructor for when POS tags aren't needed, i.e. when <code>rakeParams</code> has no stop POS tags (see 
+   * {@link RakeParams#needsPOSTags}). No models are loaded, and documents are neither split into sentences nor 
+   * tagged, which makes RAKE many times faster. The keywords are the same as those found by the other constructors.
+   *
+   * @param rakeParams the parameters RAKE will use
+   * @throws IllegalArgumentException if <code>rakeParams</code> has stop POS tags
+   */
+  public RakeAlgorithm(RakeParams rakeParams) {
+    this(rakeParams, (TokenTagger) null);
+  }
+  
+  /**
+   * Constructor that uses a given tagger in place of the OpenNLP models. Documents aren't split into
+   * sentences ({@link SentenceSplitter#NONE}); instead all of a document's tokens are tagged at once, which
+   * suits taggers that tag each token on its own, such as
+   * {@link io.github.crew102.rapidrake.tagging.LexiconTagger}. The tagger isn't used at all if
+   * <code>rakeParams</code> has no stop POS tags.
+   *
+   * @param rakeParams the parameters RAKE will use
+   * @param tagger the tagger, which may be null if <code>rakeParams</code> has no stop POS tags
+   * @throws IllegalArgumentException if <code>tagger</code> is null and <code>rakeParams</code> has stop POS tags
+   */
+  public RakeAlgorithm(RakeParams rakeParams, TokenTagger tagger) {
+    this(rakeParams, tagger, SentenceSplitter.NONE);
+  }
+  
+  /**
+   * Constructor that uses a given tagger and sentence splitter. Sentence boundaries only affect the context the tagger
+   * sees, so e.g. pairing a {@link TaggerPool} with a 
+   * {@link io.github.crew102.rapidrake.tagging.RuleBasedSentenceSplitter} keeps maxent tagging but drops the maxent
+   * sentence detector, at the cost of slightly different tags around the sentence boundaries the two disagree on.
+   *
+   * <pre>
+   * POSModel posModel = new Tagger(POStaggerURL).getPosModel();
+   * RakeAlgorithm rakeAlg = new RakeAlgorithm(params, new TaggerPool(posModel), new RuleBasedSentenceSplitter());
+   * </pre>
+   *
+   * @param rakeParams the parameters RAKE will use
+   * @param tagger the tagger, which may be null if <code>rakeParams</code> has no stop POS tags
+   * @param splitter the sentence splitter, e.g. a {@link SentDetectorPool}, a 
+   *        {@link io.github.crew102.rapidrake.tagging.RuleBasedSentenceSplitter} or {@link SentenceSplitter#NONE}.
+   *        May be null if <code>rakeParams</code> has no stop POS tags.
+   * @throws IllegalArgumentException if <code>tagger</code> or <code>splitter</code> is null and 
+   *         <code>rakeParams</code> has stop POS tags
+   */
+  public RakeAlgorithm(RakeParams rakeParams, TokenTagger tagger, SentenceSplitter splitter) {
+    this.tagsNeeded = rakeParams.needsPOSTags();
+    if (tagger == null && tagsNeeded) {
+      throw new IllegalArgumentException("A tagger is needed when stop POS tags are given");
+    }
+    if (splitter == null && tagsNeeded) {
+      throw new IllegalArgumentException("A sentence splitter is needed when stop POS tags are given");
+    }
+    this.rakeParams = rakeParams;
+    this.tagger = tagger;
+    this.splitter = splitter;
   }
 
   /**
@@ -101,86 +221,787 @@ public class RakeAlgorithm {
    * @see Result
    */
   public Result rake(String txtEl) {
-    String[] tokens = getTokens(txtEl);
-    ArrayList<Keyword> keywords = idCandidateKeywords(tokens);
-    ArrayList<Keyword> keywords2 = calcKeywordScores(keywords);   
-    return getResult(keywords2);
+    ResultCache cache = resultCache;
+    return cache == null ? rakeUncached(txtEl) : cache.getOrCompute(cacheFingerprint, txtEl, uncachedRake);
+  }
+  
+  private Result rakeUncached(String txtEl) {
+    RakeScratch scratch = startDocument();
+    String[] tokens = getTokens(txtEl, scratch);
+    ArrayList<Keyword> keywords = idCandidateKeywords(tokens, scratch);
+    long scoringStart = now(scratch.timer);
+    ArrayList<Keyword> keywords2 = calcKeywordScores(keywords, scratch);   
+    Result result = getResult(keywords2);
+    finishDocument(scratch, scoringStart, tokens.length, keywords.size(), keywords2.size());
+    return result;
+  }
+  
+  /**
+   * Run RAKE on a single string and keep only the highest-scoring keywords. This is equivalent to taking the 
+   * <code>topK</code> highest-scoring keywords from <code>rake(txtEl).distinct()</code>, but it never builds a 
+   * {@link Result} for the keywords that don't make the cut.
+   *
+   * @param txtEl a string with the text that you want to run RAKE on
+   * @param topK the maximum number of keywords to return
+   * @return a data object containing at most <code>topK</code> distinct keywords, sorted by descending score. Keywords 
+   *         with the same score are listed in the order in which they first appear in <code>txtEl</code>.
+   * @throws IllegalArgumentException if <code>topK</code> is less than 1
+   * @see Result
+   */
+  public Result rake(String txtEl, int topK) {
+    if (topK < 1) {
+      throw new IllegalArgumentException("topK must be at least 1");
+    }
+    RakeScratch scratch = startDocument();
+    String[] tokens = getTokens(txtEl, scratch);
+    ArrayList<Keyword> keywords = idCandidateKeywords(tokens, scratch);
+    long scoringStart = now(scratch.timer);
+    ArrayList<Keyword> keywords2 = calcKeywordScores(keywords, scratch);
+    Result result = getResult(TopKeywords.select(keywords2, topK));
+    finishDocument(scratch, scoringStart, tokens.length, keywords.size(), result.getFullKeywords().length);
+    return result;
+  }
+  
+  /**
+   * Run RAKE on a single, very long string, spreading the work on it across the threads of the common fork/join pool.
+   *
+   * @param txtEl a string with the text that you want to run RAKE on
+   * @return a data object containing the results of RAKE, identical to that of {@link #rake(String)}
+   * @see #rakeParallel(String, ForkJoinPool)
+   */
+  public Result rakeParallel(String txtEl) {
+    return rakeParallel(txtEl, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Run RAKE on a single, very long string, spreading the work on it across the threads of a given fork/join pool. 
+   * The string is split into sentences, which are divided into contiguous chunks that are tokenized, tagged and 
+   * filtered in parallel, each worker using its own tagger. The filtered tokens are then divided at phrase delimiters
+   * into chunks whose candidate keywords are found (and stemmed) in parallel, and the candidates of all of the chunks
+   * are scored together, so the result is identical to that of {@link #rake(String)}.
+   *
+   * <p>Sentence detection itself isn't parallelized, and if this object was built from a shared 
+   * <code>POSTaggerME</code> the workers take turns using it. The cost of splitting the work up only pays off for 
+   * long documents (hundreds of kilobytes or more). Neither the result cache nor the listener are used.
+   *
+   * @param txtEl a string with the text that you want to run RAKE on
+   * @param pool the pool whose threads should run RAKE
+   * @return a data object containing the results of RAKE, identical to that of {@link #rake(String)}
+   */
+  public Result rakeParallel(final String txtEl, final ForkJoinPool pool) {
+    return pool.invoke(ForkJoinTask.adapt(() -> rakeInChunks(txtEl, pool.getParallelism() * 4)));
+  }
+  
+  // Must run inside a fork/join pool, whose threads the parallel streams then use
+  private Result rakeInChunks(String txtEl, int numChunks) {
+    
+    String[] tokens;
+    if (tagsNeeded) {
+      final String[] sents = splitter.split(TextScanner.padPunctuation(txtEl));
+      final int[] sentBounds = chunkSentences(sents, numChunks);
+      List<String[]> chunkTokens = IntStream.range(0, sentBounds.length - 1).parallel()
+          .mapToObj(c -> {
+            ArrayList<String> tokenList = new ArrayList<String>();
+            tagSentences(sents, sentBounds[c], sentBounds[c + 1], tokenList, null);
+            return tokenList.toArray(new String[tokenList.size()]);
+          })
+          .collect(Collectors.toList());
+      tokens = concat(chunkTokens);
+    } else {
+      tokens = getTokens(txtEl, this.scratch.get());
+    }
+    
+    final String[] allTokens = tokens;
+    ArrayList<Keyword> keywords;
+    if (rakeParams.getPhraseDelimiters().isCharClass()) {
+      final int[] tokenBounds = chunkTokens(allTokens, numChunks);
+      keywords = IntStream.range(0, tokenBounds.length - 1).parallel()
+          .mapToObj(c -> splitCandidates(allTokens, tokenBounds[c], tokenBounds[c + 1], this.scratch.get()))
+          .collect(ArrayList::new, ArrayList::addAll, ArrayList::addAll);
+    } else {
+      keywords = idCandidateKeywordsByRegex(allTokens, this.scratch.get());
+    }
+    
+    return getResult(calcKeywordScores(keywords, this.scratch.get()));
+  }
+  
+  // Divide the sentences into at most numChunks runs with roughly equal numbers of chars. Returns the chunks' bounds.
+  private static int[] chunkSentences(String[] sents, int numChunks) {
+    long totalChars = 0;
+    for (String sentence : sents) {
+      totalChars += sentence.length();
+    }
+    long charsPerChunk = Math.max(1, totalChars / Math.max(1, numChunks));
+    IntStream.Builder bounds = IntStream.builder().add(0);
+    long chunkChars = 0;
+    for (int s = 0; s < sents.length; s++) {
+      chunkChars += sents[s].length();
+      if (chunkChars >= charsPerChunk && s < sents.length - 1) {
+        bounds.add(s + 1);
+        chunkChars = 0;
+      }
+    }
+    return bounds.add(sents.length).build().toArray();
+  }
+  
+  // Divide the tokens into at most numChunks runs, each of which (but the last) ends with a token that's a single 
+  // phrase delimiter. Returns the chunks' bounds.
+  private int[] chunkTokens(String[] tokens, int numChunks) {
+    PhraseDelimiters delims = rakeParams.getPhraseDelimiters();
+    int tokensPerChunk = Math.max(1, tokens.length / Math.max(1, numChunks));
+    IntStream.Builder bounds = IntStream.builder().add(0);
+    int i = tokensPerChunk;
+    while (i < tokens.length) {
+      String token = tokens[i - 1];
+      if (token.length() == 1 && delims.isDelimiter(token.charAt(0))) {
+        bounds.add(i);
+        i += tokensPerChunk;
+      } else {
+        i++;
+      }
+    }
+    return bounds.add(tokens.length).build().toArray();
+  }
+  
+  private static String[] concat(List<String[]> arrays) {
+    int length = 0;
+    for (String[] array : arrays) {
+      length += array.length;
+    }
+    String[] all = new String[length];
+    int pos = 0;
+    for (String[] array : arrays) {
+      System.arraycopy(array, 0, all, pos, array.length);
+      pos += array.length;
+    }
+    return all;
+  }
+  
+  /**
+   * Run RAKE on a batch of strings, spreading the strings across the threads of the common fork/join pool.
+   *
+   * @param txtEls the strings that you want to run RAKE on
+   * @return the results of RAKE, in the same order as <code>txtEls</code>
+   * @see #rakeAll(List, ForkJoinPool)
+   */
+  public List<Result> rakeAll(List<String> txtEls) {
+    return rakeAll(txtEls, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Run RAKE on a batch of strings, spreading the strings across the threads of a given fork/join pool. Each worker
+   * thread reuses its own scratch state (and, if this object was built from models rather than from a shared tagger
+   * and sentence detector, its own tagger and sentence detector) from one string to the next.
+   *
+   * @param txtEls the strings that you want to run RAKE on
+   * @param pool the pool whose threads should run RAKE
+   * @return the results of RAKE, in the same order as <code>txtEls</code>
+   */
+  public List<Result> rakeAll(final List<String> txtEls, ForkJoinPool pool) {
+    // A parallel stream started from inside a pool's task runs on that pool rather than on the common pool
+    return pool.invoke(ForkJoinTask.adapt(() -> txtEls.parallelStream()
+                                                       .map(this::rake)
+                                                       .collect(Collectors.toList())));
+  }
+  
+  /**
+   * Lazily run RAKE on a stream of strings. The returned stream is parallel if <code>txtEls</code> is, and keeps the
+   * encounter order of <code>txtEls</code> if <code>txtEls</code> is ordered.
+   *
+   * @param txtEls the strings that you want to run RAKE on
+   * @return a stream of results of RAKE, one per string
+   */
+  public Stream<Result> rakeAll(Stream<String> txtEls) {
+    return txtEls.map(this::rake);
+  }
+  
+  /**
+   * Run RAKE on a batch of strings, submitting one task per string to a given executor. Blocks until every string
+   * has been processed.
+   *
+   * @param txtEls the strings that you want to run RAKE on
+   * @param executor the executor that should run RAKE
+   * @return the results of RAKE, in the same order as <code>txtEls</code>
+   */
+  public List<Result> rakeAll(Iterable<String> txtEls, Executor executor) {
+    
+    ArrayList<CompletableFuture<Result>> futures = new ArrayList<CompletableFuture<Result>>();
+    for (final String txtEl : txtEls) {
+      futures.add(CompletableFuture.supplyAsync(() -> rake(txtEl), executor));
+    }
+    
+    ArrayList<Result> results = new ArrayList<Result>(futures.size());
+    for (CompletableFuture<Result> future : futures) {
+      results.add(future.join());
+    }
+    return results;
+  }
+  
+  /**
+   * Run RAKE on a string asynchronously, on a thread of the common fork/join pool.
+   *
+   * @param txtEl the string that you want to run RAKE on
+   * @return a future that completes with the result of RAKE (or with the exception RAKE threw)
+   * @see #rakeAsync(String, Executor)
+   */
+  public CompletableFuture<Result> rakeAsync(String txtEl) {
+    return rakeAsync(txtEl, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Run RAKE on a string asynchronously, on a given executor.
+   *
+   * <p>Each thread that runs RAKE keeps its own scratch state (and, if this object was built from models, its own
+   * tagger and sentence detector), so <code>executor</code> should be a bounded pool of reused threads. Callers on
+   * virtual threads can wait on the returned future without tying up a carrier thread; see
+   * {@link io.github.crew102.rapidrake.corpus.RakeProcessor} for a way to bound the number of strings in flight.
+   *
+   * @param txtEl the string that you want to run RAKE on
+   * @param executor the executor that should run RAKE
+   * @return a future that completes with the result of RAKE (or with the exception RAKE threw)
+   */
+  public CompletableFuture<Result> rakeAsync(final String txtEl, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> rake(txtEl), executor);
+  }
+  
+  /**
+   * Run RAKE over a whole corpus, treating it as one body of text: word frequencies and degrees are pooled across 
+   * every document, so each keyword gets a single corpus-level score. The documents are spread across the threads of 
+   * the common fork/join pool.
+   *
+   * @param txtEls the documents of the corpus
+   * @return the pooled statistics of the corpus. {@link KeywordStats#toResult} gives the corpus-level scores, and 
+   *         {@link KeywordStats#toDocFreqWeightedResult} ranks keywords by how widely they occur across documents.
+   * @see #rakeCorpus(List, ForkJoinPool)
+   */
+  public KeywordStats rakeCorpus(List<String> txtEls) {
+    return rakeCorpus(txtEls, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Run RAKE over a whole corpus, spreading the documents across the threads of a given fork/join pool. Each thread 
+   * builds statistics for its share of the documents, and the partial statistics are then merged with 
+   * {@link KeywordStats#merge}. The result is the same as adding every document to a single {@link KeywordStats} 
+   * in order, including the order in which keywords are first seen.
+   *
+   * @param txtEls the documents of the corpus
+   * @param pool the pool whose threads should run RAKE
+   * @return the pooled statistics of the corpus
+   */
+  public KeywordStats rakeCorpus(final List<String> txtEls, ForkJoinPool pool) {
+    final boolean useStems = rakeParams.shouldStem();
+    return pool.invoke(ForkJoinTask.adapt(() -> txtEls.parallelStream()
+                                                       .collect(() -> new KeywordStats(useStems),
+                                                                (stats, txtEl) -> addDocumentToStats(txtEl, stats),
+                                                                KeywordStats::merge)));
+  }
+  
+  /**
+   * Run RAKE on the text read from a reader, a chunk at a time. The whole text is never held in memory: each chunk 
+   * is split into sentences, tagged and broken into candidate keywords, which are added to a running 
+   * {@link KeywordStats}. Memory use therefore depends on the number of distinct words and keywords in the text 
+   * rather than on its length.
+   *
+   * <p>Chunks are only cut just after a phrase delimiter that ends a token (preferably a <code>.</code>, 
+   * <code>?</code> or <code>!</code>), so no phrase or token is ever split and the keywords are the same as for 
+   * {@link #rake(String)}. A chunk with no such delimiter is grown until one turns up, so memory use also depends on
+   * the longest run of text without one. If the phrase delimiters aren't a simple character class (see 
+   * {@link PhraseDelimiters#isCharClass}), safe places to cut can't be found and the whole text is read before it's 
+   * processed. Sentence detection and POS tagging only ever see one chunk at a time, though, so tags right at chunk 
+   * boundaries may differ slightly.
+   *
+   * @param reader the source of the text that you want to run RAKE on. The reader isn't closed.
+   * @return one entry per distinct keyword, in order of first appearance, scored as by 
+   *         <code>rake(text).distinct()</code>. {@link Result#getCounts} gives the number of times each keyword 
+   *         occurred.
+   * @throws java.io.IOException if the reader can't be read
+   */
+  public Result rakeIncremental(Reader reader) throws java.io.IOException {
+    return rakeIncremental(reader, DEFAULT_CHUNK_SIZE);
+  }
+  
+  /**
+   * Run RAKE on the text read from a reader, a chunk at a time.
+   *
+   * @param reader the source of the text that you want to run RAKE on. The reader isn't closed.
+   * @param chunkSize the number of characters to process at a time. A chunk is longer if it would otherwise end 
+   *        partway through a phrase.
+   * @return one entry per distinct keyword, in order of first appearance
+   * @throws java.io.IOException if the reader can't be read
+   * @throws IllegalArgumentException if <code>chunkSize</code> is less than 1
+   * @see #rakeIncremental(Reader)
+   */
+  public Result rakeIncremental(Reader reader, int chunkSize) throws java.io.IOException {
+    
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be at least 1");
+    }
+    
+    KeywordStats stats = new KeywordStats(rakeParams.shouldStem());
+    char[] buff = new char[chunkSize];
+    int filled = 0;
+    int read;
+    
+    while ((read = reader.read(buff, filled, buff.length - filled)) >= 0) {
+      filled += read;
+      if (filled == buff.length) {
+        int cut = chunkBoundary(buff, filled);
+        if (cut == 0) {
+          // The whole buffer is one phrase (or part of one), so read the rest of it before processing any of it
+          buff = Arrays.copyOf(buff, buff.length * 2);
+          continue;
+        }
+        addToStats(new String(buff, 0, cut), stats);
+        System.arraycopy(buff, cut, buff, 0, filled - cut);
+        filled -= cut;
+      }
+    }
+    if (filled > 0) {
+      addToStats(new String(buff, 0, filled), stats);
+    }
+    
+    return stats.toResult();
+  }
+  
+  /**
+   * Run RAKE on the text read from an input stream, a chunk at a time.
+   *
+   * @param inStream the source of the text that you want to run RAKE on. The stream isn't closed.
+   * @param charset the character set of the stream
+   * @return one entry per distinct keyword, in order of first appearance
+   * @throws java.io.IOException if the stream can't be read
+   * @see #rakeIncremental(Reader)
+   */
+  public Result rakeIncremental(InputStream inStream, Charset charset) throws java.io.IOException {
+    return rakeIncremental(new InputStreamReader(inStream, charset));
+  }
+  
+  /**
+   * Run RAKE on the text of a UTF-8 file, a chunk at a time.
+   *
+   * @param path the file that you want to run RAKE on
+   * @return one entry per distinct keyword, in order of first appearance
+   * @throws java.io.IOException if the file can't be read
+   * @see #rakeIncremental(Reader)
+   */
+  public Result rakeIncremental(Path path) throws java.io.IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return rakeIncremental(reader);
+    }
+  }
+  
+  /**
+   * Find the candidate keywords in a string and add them to a running set of statistics, without scoring them. 
+   * Calling this for each piece of a text and then calling {@link KeywordStats#toResult} is equivalent to running 
+   * RAKE on the whole text and removing duplicate keywords.
+   *
+   * @param txtEl a string with the text that you want to run RAKE on
+   * @param stats the statistics to add the string's keywords to
+   */
+  public void addToStats(String txtEl, KeywordStats stats) {
+    RakeScratch scratch = startDocument();
+    String[] tokens = getTokens(txtEl, scratch);
+    ArrayList<Keyword> keywords = idCandidateKeywords(tokens, scratch);
+    stats.addAll(keywords);
+    finishDocument(scratch, -1, tokens.length, keywords.size(), keywords.size());
+  }
+  
+  /**
+   * Find the candidate keywords in a document and add them to a running set of statistics as one document, so that 
+   * they count towards the keywords' document frequencies.
+   *
+   * @param txtEl a string with the text of the document
+   * @param stats the statistics to add the document's keywords to
+   * @see KeywordStats#addDocument
+   */
+  public void addDocumentToStats(String txtEl, KeywordStats stats) {
+    RakeScratch scratch = startDocument();
+    String[] tokens = getTokens(txtEl, scratch);
+    ArrayList<Keyword> keywords = idCandidateKeywords(tokens, scratch);
+    stats.addDocument(keywords);
+    finishDocument(scratch, -1, tokens.length, keywords.size(), keywords.size());
+  }
+  
+  /**
+   * Register a listener to be told how long each stage of the pipeline takes, along with other statistics about each
+   * document. The listener is called on the thread that processed each document, so it must be thread safe if this
+   * object is used by several threads.
+   *
+   * @param listener the listener, or null (or {@link RakeListener#NO_OP}) to turn instrumentation off
+   * @see RakeMetrics
+   */
+  public void setListener(RakeListener listener) {
+    this.listener = listener == null ? RakeListener.NO_OP : listener;
+  }
+  
+  /**
+   * @return the registered listener, which is {@link RakeListener#NO_OP} if there isn't one
+   */
+  public RakeListener getListener() {
+    return listener;
+  }
+  
+  /**
+   * Put a cache in front of {@link #rake(String)} (and so of {@link #rakeAll}), so that documents that have been seen 
+   * before aren't processed again. No listener calls are made for documents whose results come from the cache.
+   *
+   * @param cache the cache, which may be shared with other RakeAlgorithms, or null to stop caching
+   * @see ResultCache
+   */
+  public void setResultCache(ResultCache cache) {
+    if (cache != null) {
+      cacheFingerprint = fingerprint();
+    }
+    this.resultCache = cache;
+  }
+  
+  /**
+   * @return the registered result cache, or null if there isn't one
+   */
+  public ResultCache getResultCache() {
+    return resultCache;
   }
   
-  private String[] getTokens(String txtEl) {
+  // Identifies everything that affects the keywords RAKE finds, other than the models
+  private long fingerprint() {
+    StringBuilder buff = new StringBuilder();
+    for (String stopWord : rakeParams.getStopWords()) {
+      buff.append(stopWord).append('\u0000');
+    }
+    buff.append('\u0001');
+    for (String stopPOS : rakeParams.getStopPOS()) {
+      buff.append(stopPOS).append('\u0000');
+    }
+    buff.append('\u0001').append(rakeParams.getWordMinChar()).append('\u0001').append(rakeParams.shouldStem())
+        .append('\u0001').append(rakeParams.getPhraseDelims()).append('\u0001').append(rakeParams.getStemmerLang())
+        .append('\u0001').append(tagger == null ? "" : tagger.getClass().getName())
+        .append('\u0001').append(splitter == null ? "" : splitter.getClass().getName());
+    return ResultCache.hash64(buff.toString(), 0);
+  }
+  
+  private RakeScratch startDocument() {
+    RakeScratch scratch = this.scratch.get();
+    RakeListener listener = this.listener;
+    if (listener == RakeListener.NO_OP) {
+      scratch.timer = null;
+    } else {
+      scratch.timer = scratch.stageTimer;
+      scratch.timer.start(listener, scratch.stemmer);
+    }
+    return scratch;
+  }
+  
+  private void finishDocument(RakeScratch scratch, long scoringStart, int numTokens, int numCandidates, 
+                              int numKeywords) {
+    StageTimer timer = scratch.timer;
+    if (timer != null) {
+      if (scoringStart >= 0) {
+        timer.add(RakeStage.SCORING, System.nanoTime() - scoringStart);
+      }
+      scratch.timer = null;
+      timer.finish(scratch.stemmer, rakeParams.shouldStem(), numTokens, numCandidates, numKeywords);
+    }
+  }
+  
+  // The clock is only read while a document is being instrumented
+  private static long now(StageTimer timer) {
+    return timer == null ? 0 : System.nanoTime();
+  }
+  
+  // Find where rakeIncremental can cut the buffer without changing the keywords: just after a phrase delimiter that
+  // also ends a token (so no token is split, and tokens are what stop words, minimum lengths and tags apply to). 
+  // Sentence ends are preferred, since the tagger sees each chunk on its own. Returns 0 if there's no such place, 
+  // and always 0 if the delimiters aren't a character class. Delimiters and whitespace are never surrogates, so a cut
+  // never falls inside a surrogate pair.
+  private int chunkBoundary(char[] buff, int length) {
+    
+    PhraseDelimiters delims = rakeParams.getPhraseDelimiters();
+    if (!delims.isCharClass()) {
+      return 0;
+    }
+    
+    int lastCut = 0;
+    for (int i = length - 1; i >= 0; i--) {
+      char ch = buff[i];
+      if (!delims.isDelimiter(ch)) {
+        continue;
+      }
+      boolean endsToken = Character.isWhitespace(ch) || TextScanner.isPadded(ch) 
+          || (i + 1 < length && Character.isWhitespace(buff[i + 1]));
+      if (!endsToken) {
+        continue;
+      }
+      if (ch == '.' || ch == '?' || ch == '!') {
+        return i + 1;
+      }
+      if (lastCut == 0) {
+        lastCut = i + 1;
+      }
+    }
+    return lastCut;
+  }
+  
+  // The pipeline stages below are package-private so that the JMH benchmarks (src/jmh/java) can time each of them
+  
+  RakeScratch newScratch() {
+    return new RakeScratch(rakeParams);
+  }
+  
+  // Run RAKE on a document that's already been split into trimmed, lower-cased tokens and, if tags are needed, 
+  // tagged (RakeProfiles does this once for all of its profiles). tags is ignored if tags aren't needed.
+  Result rakeTokens(String[] loweredTokens, String[] tags) {
+    RakeScratch scratch = startDocument();
+    long start = now(scratch.timer);
+    String[] tokens = new String[loweredTokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = filterToken(loweredTokens[i], tagsNeeded ? tags[i] : null);
+    }
+    if (scratch.timer != null) {
+      scratch.timer.add(RakeStage.TOKEN_FILTERING, System.nanoTime() - start);
+    }
+    ArrayList<Keyword> keywords = idCandidateKeywords(tokens, scratch);
+    long scoringStart = now(scratch.timer);
+    ArrayList<Keyword> keywords2 = calcKeywordScores(keywords, scratch);
+    Result result = getResult(keywords2);
+    finishDocument(scratch, scoringStart, tokens.length, keywords.size(), keywords2.size());
+    return result;
+  }
+  
+  boolean needsTags() {
+    return tagsNeeded;
+  }
+  
+  String[] getTokens(String txtEl, RakeScratch scratch) {
+    
+    StageTimer timer = scratch.timer;
+    long start = now(timer);
+    long taggingNanos = 0;
     
     // Have to pad punctuation chars with spaces so that tokenizer doesn't combine words with punctuation chars
-    String txtPadded = txtEl.replaceAll("([-,.?():;\"!/])", " $1 ");
+    String txtPadded = TextScanner.padPunctuation(txtEl);
     
-    ArrayList<String> tokenList = new ArrayList<String>();
-    Pattern anyWordChar = Pattern.compile("[a-z]");
+    ArrayList<String> tokenList = scratch.tokenList;
+    tokenList.clear();
     
-    String[] sents;
-    // Make sure that the tagger is thread safe
-    synchronized(sentDetector){
-      sents = sentDetector.sentDetect(txtPadded);
+    WhitespaceTokenizer wsTokenizer = WhitespaceTokenizer.INSTANCE;
+    long sentNanos = 0;
+    
+    if (!tagsNeeded) {
+      // The tags can't change which tokens are kept, so skip tagging. Sentence boundaries only matter to the tagger
+      // (and, with the end-of-sentence chars padded, always fall between tokens), so skip sentence detection too.
+      filterTokens(wsTokenizer.tokenize(txtPadded), null, tokenList);
+    } else {
+      long sentStart = now(timer);
+      String[] sents = splitter.split(txtPadded, timer);
+      // The trivial time SentenceSplitter.NONE takes counts as token filtering
+      sentNanos = splitter == SentenceSplitter.NONE ? 0 : now(timer) - sentStart;
+      taggingNanos = tagSentences(sents, 0, sents.length, tokenList, timer);
     }
-
+    
+    String[] tokens = new String[tokenList.size()];
+    tokenList.toArray(tokens);
+    tokenList.clear();
+    
+    if (timer != null) {
+      if (tagsNeeded) {
+        if (splitter != SentenceSplitter.NONE) {
+          timer.add(RakeStage.SENTENCE_DETECTION, sentNanos);
+        }
+        timer.add(RakeStage.POS_TAGGING, taggingNanos);
+      }
+      timer.add(RakeStage.TOKEN_FILTERING, System.nanoTime() - start - sentNanos - taggingNanos);
+    }
+    return tokens;
+  }
+  
+  // Tokenize, tag and filter sents[from, to), adding their tokens to tokenList. Returns the time spent tagging if 
+  // timer is non-null.
+  private long tagSentences(String[] sents, int from, int to, ArrayList<String> tokenList, StageTimer timer) {
+    
     WhitespaceTokenizer wsTokenizer = WhitespaceTokenizer.INSTANCE;
-        
-    for (String sentence : sents) {
+    long taggingNanos = 0;
+    
+    for (int s = from; s < to; s++) {
+      
+      String[] tokenArray = wsTokenizer.tokenize(sents[s]);
       
-      String[] tokenArray = wsTokenizer.tokenize(sentence);
+      long tagStart = now(timer);
+      String[] tags = tagger.tag(tokenArray, timer);
+      taggingNanos += now(timer) - tagStart;
+      
+      filterTokens(tokenArray, tags, tokenList);
+    }
+    return taggingNanos;
+  }
+  
+  // Add the tokens to tokenList, replacing the unwanted ones with a period. tags is null if tags aren't needed.
+  private void filterTokens(String[] tokenArray, String[] tags, ArrayList<String> tokenList) {
+    for (int i = 0; i < tokenArray.length; i++) {
+      tokenList.add(filterToken(tokenArray[i].trim().toLowerCase(), tags == null ? null : tags[i]));
+    }
+  }
+  
+  // Returns the trimmed, lower-cased token, or a period if it's unwanted. tag is null if tags aren't needed.
+  private String filterToken(String token, String tag) {
+    if (TextScanner.isPunct(token)) {
+      // if the token is a punctuation char, leave it
+      return token;
+    }
+    if ((tag != null && rakeParams.getStopPOSSet().contains(tag.trim())) || 
+        token.length() < rakeParams.getWordMinChar() || rakeParams.getStopWordSet().contains(token) || 
+        !TextScanner.hasWordChar(token)) {
+      // replace unwanted tokens with a period, which we can be confident will be used as a delimiter
+      return ".";
+    }
+    return token;
+  }
 
-      String[] tags;
-      // Make sure that the tagger is thread safe
-      synchronized(tagger){
-        tags = tagger.tag(tokenArray);
+  ArrayList<Keyword> idCandidateKeywords(String[] tokens, RakeScratch scratch) {
+    
+    StageTimer timer = scratch.timer;
+    if (timer == null) {
+      return splitCandidates(tokens, scratch);
+    }
+    
+    long stemmingBefore = timer.get(RakeStage.STEMMING);
+    long start = System.nanoTime();
+    ArrayList<Keyword> keywords = splitCandidates(tokens, scratch);
+    long stemmingNanos = timer.get(RakeStage.STEMMING) - stemmingBefore;
+    timer.add(RakeStage.CANDIDATE_SPLITTING, System.nanoTime() - start - stemmingNanos);
+    return keywords;
+  }
+  
+  private ArrayList<Keyword> splitCandidates(String[] tokens, RakeScratch scratch) {
+    if (!rakeParams.getPhraseDelimiters().isCharClass()) {
+      return idCandidateKeywordsByRegex(tokens, scratch);
+    }
+    return splitCandidates(tokens, 0, tokens.length, scratch);
+  }
+  
+  // Find the candidate keywords in tokens[firstToken, endToken). Only used when the phrase delimiters are a character
+  // class. If firstToken isn't 0, tokens[firstToken - 1] must be a single delimiter char, which is where the state
+  // of the walk is reset, so splitting the tokens this way finds the same candidates as walking all of them at once.
+  private ArrayList<Keyword> splitCandidates(String[] tokens, int firstToken, int endToken, RakeScratch scratch) {
+    
+    PhraseDelimiters delims = rakeParams.getPhraseDelimiters();
+    
+    // Walk the tokens directly rather than joining them into one string and splitting it again. A phrase is normally
+    // a run of whole tokens, tokens[start, i), but a token can also contain a delimiter (e.g., when the delimiters 
+    // include an apostrophe), in which case the phrase begins or ends with a piece of that token.
+    ArrayList<Keyword> keywords = new ArrayList<Keyword>();
+    boolean spaceIsDelim = delims.isDelimiter(' ');
+    String leading = null;
+    int start = firstToken;
+    
+    for (int i = firstToken; i < endToken; i++) {
+      
+      String token = tokens[i];
+      int cut = nextDelimiter(token, 0, delims);
+      
+      if (cut < 0) {
+        if (spaceIsDelim) {
+          addCandidate(keywords, leading, tokens, start, i + 1, null, scratch);
+          leading = null;
+          start = i + 1;
+        }
+        continue;
       }
       
-      for (int i = 0; i < tokenArray.length; i++) {
-        
-        String token = tokenArray[i].trim().toLowerCase();
-        String tag = tags[i].trim();
-        
-        if (token.matches("\\p{Punct}")) {
-          // if the token is a punctuation char, leave it
-        } else if (rakeParams.getStopPOS().contains(tag) || token.length() < rakeParams.getWordMinChar() || 
-            rakeParams.getStopWords().contains(token) || !anyWordChar.matcher(token).find()) {
-          // replace unwanted tokens with a period, which we can be confident will be used as a delimiter
-          token = ".";
+      String trailing = cut > 0 ? token.substring(0, cut) : null;
+      addCandidate(keywords, leading, tokens, start, i, trailing, scratch);
+      
+      int from = cut + 1;
+      int next;
+      while ((next = nextDelimiter(token, from, delims)) >= 0) {
+        addCandidate(keywords, token.substring(from, next), tokens, 0, 0, null, scratch);
+        from = next + 1;
+      }
+      
+      leading = from < token.length() ? token.substring(from) : null;
+      start = i + 1;
+      if (spaceIsDelim && leading != null) {
+        addCandidate(keywords, leading, tokens, start, start, null, scratch);
+        leading = null;
+      }
+    }
+    addCandidate(keywords, leading, tokens, start, endToken, null, scratch);
+    
+    return keywords;
+  }
+  
+  // Add the phrase made up of [leading] tokens[start, end) [trailing] as a candidate keyword, if it has any words in 
+  // it. leading and trailing are null unless the phrase starts or ends partway through a token.
+  private void addCandidate(ArrayList<Keyword> keywords, String leading, String[] tokens, int start, int end, 
+                            String trailing, RakeScratch scratch) {
+    
+    if (leading == null && trailing == null) {
+      // The common case: every token is non-empty, has no surrounding whitespace and was kept because it contains a
+      // word char or is punctuation, so the phrase's words are just the tokens themselves
+      for (int i = start; i < end; i++) {
+        if (TextScanner.hasWordChar(tokens[i])) {
+          keywords.add(newKeyword(null, Arrays.copyOfRange(tokens, start, end), scratch));
+          return;
         }
-        
-        tokenList.add(token);
       }
+      return;
     }
     
-    String[] tokens = new String[tokenList.size()];
-    return tokenList.toArray(tokens);
+    StringBuilder piece = new StringBuilder();
+    if (leading != null) {
+      piece.append(leading).append(' ');
+    }
+    for (int i = start; i < end; i++) {
+      piece.append(tokens[i]).append(' ');
+    }
+    if (trailing != null) {
+      piece.append(trailing);
+    }
+    addCandidate(keywords, piece.toString(), scratch);
   }
-
-  private ArrayList<Keyword> idCandidateKeywords(String[] tokens) {
+  
+  private void addCandidate(ArrayList<Keyword> keywords, String piece, RakeScratch scratch) {
+    if (TextScanner.hasWordChar(piece)) {
+      String trimmedKey = piece.trim();
+      keywords.add(newKeyword(trimmedKey, trimmedKey.split(" "), scratch));
+    }
+  }
+  
+  private Keyword newKeyword(String keyString, String[] wordAr, RakeScratch scratch) {
+    if (!rakeParams.shouldStem()) {
+      return keyString == null ? new Keyword(wordAr) : new Keyword(keyString, wordAr);
+    }
+    long start = now(scratch.timer);
+    String[] stemmedWordAr = new String[wordAr.length];
+    for (int k = 0; k < wordAr.length; k++) {
+      stemmedWordAr[k] = scratch.stemmer.stem(wordAr[k]);
+    }
+    if (scratch.timer != null) {
+      scratch.timer.add(RakeStage.STEMMING, System.nanoTime() - start);
+    }
+    if (keyString == null) {
+      return new Keyword(wordAr, stemmedWordAr);
+    }
+    return new Keyword(keyString, wordAr, collapseTokens(stemmedWordAr), stemmedWordAr);
+  }
+  
+  private static int nextDelimiter(String token, int from, PhraseDelimiters delims) {
+    for (int i = from; i < token.length(); i++) {
+      if (delims.isDelimiter(token.charAt(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+  
+  // Used when the phrase delimiters aren't a simple character class, so the tokens have to be run through the regex
+  private ArrayList<Keyword> idCandidateKeywordsByRegex(String[] tokens, RakeScratch scratch) {
     
     ArrayList<Keyword> keywords = new ArrayList<Keyword>();
     String cleanedTxt = collapseTokens(tokens);
-    String[] aryKey = cleanedTxt.split(rakeParams.getPhraseDelims());
-    Pattern anyWordChar = Pattern.compile("[a-z]");
-    SnowballStemmer stemmer = new SnowballStemmer(rakeParams.getStemmerLang());
-    
-    for (int i = 0; i < aryKey.length; i++) {
-      String oneKey = aryKey[i];
-      Matcher myMatch = anyWordChar.matcher(oneKey);
-      if (myMatch.find()) {
-        String trimmedKey = oneKey.trim();
-        String[] wordAr = trimmedKey.split(" ");
-        if (rakeParams.shouldStem()) {
-          String[] stemmedWordAr = new String[wordAr.length];
-          for (int k = 0; k < wordAr.length; k++) {
-            stemmedWordAr[k] = stemmer.stem(wordAr[k]).toString();
-          }
-          String stemedString = collapseTokens(stemmedWordAr);
-          Keyword someKey = new Keyword(trimmedKey, wordAr, stemedString, stemmedWordAr);
-          keywords.add(someKey);
-        } else {
-          Keyword someKey = new Keyword(trimmedKey, wordAr);
-          keywords.add(someKey);
-        }
-      }
+    String[] aryKey = rakeParams.getPhraseDelimiters().split(cleanedTxt);
+    
+    for (String oneKey : aryKey) {
+      addCandidate(keywords, oneKey, scratch);
     }
     
     return keywords;
@@ -204,50 +1025,9 @@ public class RakeAlgorithm {
     return fullBuff.toString();
   }
   
-  private ArrayList<Keyword> calcKeywordScores(ArrayList<Keyword> candidateKeywords) {
-     
-     Map<String, Integer> wordfreq = new HashMap<String, Integer>();
-     Map<String, Integer> worddegTemp = new HashMap<String, Integer>();
-     Map<String, Float> tokenScores = new HashMap<String, Float>();
-
-    for (Keyword oneKey : candidateKeywords) {
-
-      String[] keysTokens;
-
-      if (rakeParams.shouldStem()) {
-        keysTokens = oneKey.getKeyStemmedAry();
-      } else {
-        keysTokens = oneKey.getKeyStringAry();
-      }
-
-      for (String aTok : keysTokens) {
-
-        int degTe = keysTokens.length - 1;
-
-        if (!wordfreq.containsKey(aTok)) {
-          wordfreq.put(aTok, 1);
-          worddegTemp.put(aTok, degTe);
-        } else {
-          int valu2 = wordfreq.get(aTok) + 1;
-          wordfreq.replace(aTok, valu2);
-          int repdeg = worddegTemp.get(aTok) + degTe;
-          worddegTemp.replace(aTok, repdeg);
-        }
-      }
-    }
-
-     for (Map.Entry<String, Integer> entry : wordfreq.entrySet()) {
-       String aKey = entry.getKey();
-       float freq = (float) wordfreq.get(aKey);
-       float val = (worddegTemp.get(aKey) + freq) / freq;
-       tokenScores.put(aKey, val);
-    }
-
-    for (Keyword oneKey : candidateKeywords) {
-      oneKey.sumScore(tokenScores, rakeParams);
-    }
-     
-     return candidateKeywords;
+  ArrayList<Keyword> calcKeywordScores(ArrayList<Keyword> candidateKeywords, RakeScratch scratch) {
+    scratch.scorer.score(candidateKeywords, rakeParams.shouldStem());
+    return candidateKeywords;
   }
   
   /**
@@ -0,0 +1,60 @@
+package io.github.crew102.rapidrake;
+
+/**
+ * Receives instrumentation from a {@link RakeAlgorithm}: how long each stage of the pipeline took, how long threads 
+ * waited for a shared tagger or sentence detector, how many tokens, candidates and keywords each document produced, 
+ * and how well the stem cache did. Register one with {@link RakeAlgorithm#setListener}; {@link RakeMetrics} is a 
+ * ready-made implementation that keeps histograms.
+ * 
+ * <p>The callbacks for a document are made on the thread that processed it, once it has been processed, so a 
+ * listener shared by several threads must be thread safe. Every callback has an empty default implementation, so an
+ * implementation only needs to override the ones it cares about (e.g., to commit JFR events on JVMs that have them).
+ * When no listener is registered ({@link #NO_OP}), the pipeline doesn't read the clock at all.
+ */
+public interface RakeListener {
+  
+  /**
+   * A listener that ignores everything. This is the default.
+   */
+  RakeListener NO_OP = new RakeListener() { };
+  
+  /**
+   * Called once for each stage that a document went through.
+   * 
+   * @param stage the stage
+   * @param nanos the time the stage took for the document, in nanoseconds
+   */
+  default void onStage(RakeStage stage, long nanos) {
+  }
+  
+  /**
+   * Called once per document that went through a shared tagger or sentence detector (i.e., only if the algorithm 
+   * was built from a <code>POSTaggerME</code> and a <code>SentenceDetectorME</code>). The waiting time is also 
+   * included in the time of the {@link RakeStage#POS_TAGGING} and {@link RakeStage#SENTENCE_DETECTION} stages.
+   * 
+   * @param nanos the total time the document's thread spent waiting for locks, in nanoseconds
+   */
+  default void onLockWait(long nanos) {
+  }
+  
+  /**
+   * Called once per document.
+   * 
+   * @param numTokens the number of tokens in the document
+   * @param numCandidates the number of candidate keywords found in the document
+   * @param numKeywords the number of keywords returned (or, for {@link RakeAlgorithm#addToStats}, added to the 
+   *        statistics)
+   */
+  default void onDocument(int numTokens, int numCandidates, int numKeywords) {
+  }
+  
+  /**
+   * Called once per document when stemming is on.
+   * 
+   * @param hits the number of stems found in the stem cache while processing the document
+   * @param misses the number of stems that had to be computed
+   */
+  default void onStemmerCache(long hits, long misses) {
+  }
+  
+}
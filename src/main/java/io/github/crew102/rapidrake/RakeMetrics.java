@@ -0,0 +1,262 @@
+package io.github.crew102.rapidrake;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link RakeListener} that keeps histograms of everything it's told: per-stage timings, lock waits, and the number
+ * of tokens, candidates and keywords per document, along with running stem cache hit and miss counts. It's safe (and 
+ * cheap) to share one RakeMetrics between many threads and many {@link RakeAlgorithm}s, and to read it while it's 
+ * being updated, e.g. from a metrics scraper.
+ */
+public class RakeMetrics implements RakeListener {
+  
+  private final EnumMap<RakeStage, Histogram> stageNanos = new EnumMap<RakeStage, Histogram>(RakeStage.class);
+  private final Histogram lockWaitNanos = new Histogram();
+  private final Histogram tokens = new Histogram();
+  private final Histogram candidates = new Histogram();
+  private final Histogram keywords = new Histogram();
+  private final LongAdder stemmerHits = new LongAdder();
+  private final LongAdder stemmerMisses = new LongAdder();
+  
+  /**
+   * Constructor.
+   */
+  public RakeMetrics() {
+    for (RakeStage stage : RakeStage.values()) {
+      stageNanos.put(stage, new Histogram());
+    }
+  }
+  
+  @Override
+  public void onStage(RakeStage stage, long nanos) {
+    stageNanos.get(stage).record(nanos);
+  }
+  
+  @Override
+  public void onLockWait(long nanos) {
+    lockWaitNanos.record(nanos);
+  }
+  
+  @Override
+  public void onDocument(int numTokens, int numCandidates, int numKeywords) {
+    tokens.record(numTokens);
+    candidates.record(numCandidates);
+    keywords.record(numKeywords);
+  }
+  
+  @Override
+  public void onStemmerCache(long hits, long misses) {
+    stemmerHits.add(hits);
+    stemmerMisses.add(misses);
+  }
+  
+  /**
+   * @param stage a stage of the pipeline
+   * @return the time the stage took per document, in nanoseconds
+   */
+  public Histogram getStageNanos(RakeStage stage) {
+    return stageNanos.get(stage);
+  }
+  
+  /**
+   * @return the time spent per document waiting for a shared tagger or sentence detector, in nanoseconds
+   */
+  public Histogram getLockWaitNanos() {
+    return lockWaitNanos;
+  }
+  
+  /**
+   * @return the number of tokens per document
+   */
+  public Histogram getTokens() {
+    return tokens;
+  }
+  
+  /**
+   * @return the number of candidate keywords per document
+   */
+  public Histogram getCandidates() {
+    return candidates;
+  }
+  
+  /**
+   * @return the number of keywords returned per document
+   */
+  public Histogram getKeywords() {
+    return keywords;
+  }
+  
+  /**
+   * @return the number of stems that were found in the stem cache
+   */
+  public long getStemmerHits() {
+    return stemmerHits.sum();
+  }
+  
+  /**
+   * @return the number of stems that had to be computed
+   */
+  public long getStemmerMisses() {
+    return stemmerMisses.sum();
+  }
+  
+  /**
+   * @return the fraction of stems that were found in the stem cache, or 0 if nothing has been stemmed
+   */
+  public double getStemmerHitRate() {
+    long hits = stemmerHits.sum();
+    long total = hits + stemmerMisses.sum();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+  
+  /**
+   * Clear all of the metrics.
+   */
+  public void reset() {
+    for (Histogram histogram : stageNanos.values()) {
+      histogram.reset();
+    }
+    lockWaitNanos.reset();
+    tokens.reset();
+    candidates.reset();
+    keywords.reset();
+    stemmerHits.reset();
+    stemmerMisses.reset();
+  }
+  
+  /**
+   * Return a description of the metrics, one line per histogram, in the format 
+   * <code>name count=... mean=... p50=... p99=... max=...</code>.
+   */
+  @Override
+  public String toString() {
+    StringBuilder buff = new StringBuilder();
+    for (RakeStage stage : RakeStage.values()) {
+      append(buff, "stage." + stage.name().toLowerCase() + ".nanos", stageNanos.get(stage));
+    }
+    append(buff, "lock_wait.nanos", lockWaitNanos);
+    append(buff, "tokens", tokens);
+    append(buff, "candidates", candidates);
+    append(buff, "keywords", keywords);
+    buff.append("stemmer.hit_rate ").append(getStemmerHitRate());
+    return buff.toString();
+  }
+  
+  private static void append(StringBuilder buff, String name, Histogram histogram) {
+    buff.append(name).append(' ').append(histogram).append('\n');
+  }
+  
+  /**
+   * A concurrent histogram of non-negative values, with one bucket per power of two. Recording a value is lock-free 
+   * and doesn't allocate; percentiles are therefore approximate (to within a factor of two).
+   */
+  public static class Histogram {
+    
+    private static final int NUM_BUCKETS = 64;
+    
+    private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    
+    Histogram() {
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+    
+    void record(long value) {
+      long clamped = Math.max(value, 0);
+      buckets[bucketOf(clamped)].increment();
+      sum.add(clamped);
+      max.accumulate(clamped);
+    }
+    
+    void reset() {
+      for (LongAdder bucket : buckets) {
+        bucket.reset();
+      }
+      sum.reset();
+      max.reset();
+    }
+    
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+      long count = 0;
+      for (LongAdder bucket : buckets) {
+        count += bucket.sum();
+      }
+      return count;
+    }
+    
+    /**
+     * @return the sum of the values recorded
+     */
+    public long getSum() {
+      return sum.sum();
+    }
+    
+    /**
+     * @return the largest value recorded, or 0 if none have been
+     */
+    public long getMax() {
+      return max.get();
+    }
+    
+    /**
+     * @return the mean of the values recorded, or 0 if none have been
+     */
+    public double getMean() {
+      long count = getCount();
+      return count == 0 ? 0 : (double) getSum() / count;
+    }
+    
+    /**
+     * @return the number of values in each bucket. Bucket 0 holds zeros and bucket <code>i</code> holds values in 
+     *         <code>[2^(i-1), 2^i)</code>.
+     */
+    public long[] getBucketCounts() {
+      long[] counts = new long[NUM_BUCKETS];
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        counts[i] = buckets[i].sum();
+      }
+      return counts;
+    }
+    
+    /**
+     * @param quantile a number between 0 and 1 (e.g., 0.99 for the 99th percentile)
+     * @return an upper bound on the given quantile of the values recorded, or 0 if none have been
+     */
+    public long getPercentile(double quantile) {
+      long[] counts = getBucketCounts();
+      long total = 0;
+      for (long count : counts) {
+        total += count;
+      }
+      long rank = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return Math.min(i == 0 ? 0 : (i == 63 ? Long.MAX_VALUE : (1L << i) - 1), getMax());
+        }
+      }
+      return 0;
+    }
+    
+    @Override
+    public String toString() {
+      return "count=" + getCount() + " mean=" + Math.round(getMean()) + " p50=" + getPercentile(0.5) + " p99=" 
+          + getPercentile(0.99) + " max=" + getMax();
+    }
+    
+    private static int bucketOf(long value) {
+      return 64 - Long.numberOfLeadingZeros(value);
+    }
+    
+  }
+  
+}
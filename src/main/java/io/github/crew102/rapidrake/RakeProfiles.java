@@ -0,0 +1,136 @@
+package io.github.crew102.rapidrake;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.sentdetect.SentenceModel;
+import opennlp.tools.tokenize.WhitespaceTokenizer;
+
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.model.Result;
+import io.github.crew102.rapidrake.opennlpUtils.SentDetectorPool;
+import io.github.crew102.rapidrake.opennlpUtils.TaggerPool;
+import io.github.crew102.rapidrake.tagging.SentenceSplitter;
+import io.github.crew102.rapidrake.tagging.TokenTagger;
+
+/**
+ * Runs RAKE with several sets of parameters ("profiles") over the same documents, doing the expensive work that the
+ * profiles have in common only once per document.
+ *
+ * <p>Calling {@link RakeAlgorithm#rake} once per profile would detect sentences in and tag every document once per
+ * profile. {@link #rake} instead tokenizes, detects sentences and tags a document once (and skips the last two
+ * entirely if no profile has stop POS tags), then runs only the per-profile steps (filtering tokens, finding and
+ * scoring candidate keywords) for each profile. Profiles that use the same stemming language also share a stemmer
+ * and its cache, so a word stemmed for one profile is a cache hit for the next. Each profile's result is the same as
+ * that of running RAKE with the profile's parameters alone.
+ *
+ * <p>A RakeProfiles object is as thread safe as its tagger and sentence splitter, which for the ones built from
+ * models means it can be used by many threads at once. Result caches aren't used, and a listener registered on one
+ * of the profiles' algorithms (see {@link #getAlgorithm}) is only told about the per-profile steps.
+ */
+public class RakeProfiles {
+  
+  private final List<RakeAlgorithm> algorithms;
+  private final TokenTagger tagger;
+  private final SentenceSplitter splitter;
+  private final boolean tagsNeeded;
+  
+  /**
+   * Constructor. Each thread that calls {@link #rake} gets its own POS tagger and sentence detector, built from the
+   * models.
+   *
+   * @param profiles the parameters of each profile
+   * @param posModel the trained POS tagging model
+   * @param sentModel the trained sentence detection model
+   * @throws IllegalArgumentException if <code>profiles</code> is empty
+   */
+  public RakeProfiles(List<RakeParams> profiles, POSModel posModel, SentenceModel sentModel) {
+    this(profiles, new TaggerPool(posModel), new SentDetectorPool(sentModel));
+  }
+  
+  /**
+   * Constructor.
+   *
+   * @param profiles the parameters of each profile
+   * @param tagger the tagger, which may be null if none of the profiles have stop POS tags
+   * @param splitter the sentence splitter, which may be null if none of the profiles have stop POS tags
+   * @throws IllegalArgumentException if <code>profiles</code> is empty, or if <code>tagger</code> or 
+   *         <code>splitter</code> is null and one of the profiles has stop POS tags
+   * @see RakeAlgorithm#RakeAlgorithm(RakeParams, TokenTagger, SentenceSplitter)
+   */
+  public RakeProfiles(List<RakeParams> profiles, TokenTagger tagger, SentenceSplitter splitter) {
+    
+    if (profiles.isEmpty()) {
+      throw new IllegalArgumentException("At least one profile is needed");
+    }
+    
+    ArrayList<RakeAlgorithm> algorithms = new ArrayList<RakeAlgorithm>(profiles.size());
+    boolean anyNeedTags = false;
+    for (RakeParams params : profiles) {
+      RakeAlgorithm rakeAlg = new RakeAlgorithm(params, tagger, splitter);
+      anyNeedTags |= rakeAlg.needsTags();
+      algorithms.add(rakeAlg);
+    }
+    
+    this.algorithms = Collections.unmodifiableList(algorithms);
+    this.tagger = tagger;
+    this.splitter = splitter;
+    this.tagsNeeded = anyNeedTags;
+  }
+  
+  /**
+   * @return the number of profiles
+   */
+  public int size() {
+    return algorithms.size();
+  }
+  
+  /**
+   * @param profile the index of a profile
+   * @return the algorithm that runs the profile on its own, which shares this object's tagger and sentence splitter
+   */
+  public RakeAlgorithm getAlgorithm(int profile) {
+    return algorithms.get(profile);
+  }
+  
+  /**
+   * Run every profile on a single string.
+   *
+   * @param txtEl a string with the text that you want to run RAKE on
+   * @return the results of RAKE, one per profile and in the order the profiles were given
+   */
+  public List<Result> rake(String txtEl) {
+    
+    String txtPadded = TextScanner.padPunctuation(txtEl);
+    WhitespaceTokenizer wsTokenizer = WhitespaceTokenizer.INSTANCE;
+    String[] tokens;
+    String[] tags = null;
+    
+    if (!tagsNeeded) {
+      tokens = wsTokenizer.tokenize(txtPadded);
+    } else {
+      ArrayList<String> tokenList = new ArrayList<String>();
+      ArrayList<String> tagList = new ArrayList<String>();
+      for (String sent : splitter.split(txtPadded)) {
+        String[] sentTokens = wsTokenizer.tokenize(sent);
+        Collections.addAll(tokenList, sentTokens);
+        Collections.addAll(tagList, tagger.tag(sentTokens));
+      }
+      tokens = tokenList.toArray(new String[tokenList.size()]);
+      tags = tagList.toArray(new String[tagList.size()]);
+    }
+    
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = tokens[i].trim().toLowerCase();
+    }
+    
+    ArrayList<Result> results = new ArrayList<Result>(algorithms.size());
+    for (RakeAlgorithm rakeAlg : algorithms) {
+      results.add(rakeAlg.rakeTokens(tokens, tags));
+    }
+    return results;
+  }
+  
+}
@@ -0,0 +1,27 @@
+package io.github.crew102.rapidrake;
+
+import java.util.ArrayList;
+
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.opennlpUtils.CachingStemmer;
+
+/**
+ * Working state that a thread reuses from one document to the next, so that running RAKE over many documents doesn't
+ * rebuild it for every document. A scratch object must only ever be used by one thread at a time.
+ */
+final class RakeScratch {
+  
+  final ArrayList<String> tokenList = new ArrayList<String>();
+  final CachingStemmer stemmer;
+  final KeywordScorer scorer = new KeywordScorer();
+  final StageTimer stageTimer = new StageTimer();
+  
+  // stageTimer while a document is being instrumented, null otherwise
+  StageTimer timer;
+  
+  RakeScratch(RakeParams rakeParams) {
+    // The stemmer (and its cache) is shared with every other RakeAlgorithm that uses the same language on this thread
+    this.stemmer = CachingStemmer.forCurrentThread(rakeParams.getStemmerLang());
+  }
+  
+}
@@ -0,0 +1,40 @@
+package io.github.crew102.rapidrake;
+
+/**
+ * The stages of the RAKE pipeline that a {@link RakeListener} is given timings for.
+ */
+public enum RakeStage {
+  
+  /**
+   * Splitting the text into sentences, including any time spent waiting for a shared sentence detector. Not reported
+   * when the sentence splitter is {@link io.github.crew102.rapidrake.tagging.SentenceSplitter#NONE}.
+   */
+  SENTENCE_DETECTION,
+  
+  /**
+   * POS tagging the tokens of each sentence, including any time spent waiting for a shared tagger.
+   */
+  POS_TAGGING,
+  
+  /**
+   * Padding punctuation, tokenizing sentences and dropping stop words, stop POS tags and short tokens.
+   */
+  TOKEN_FILTERING,
+  
+  /**
+   * Splitting the filtered tokens into candidate keywords, not counting stemming.
+   */
+  CANDIDATE_SPLITTING,
+  
+  /**
+   * Stemming the words of candidate keywords (only when {@link io.github.crew102.rapidrake.model.RakeParams#shouldStem}
+   * is true).
+   */
+  STEMMING,
+  
+  /**
+   * Scoring candidate keywords and building the {@link io.github.crew102.rapidrake.model.Result}.
+   */
+  SCORING
+  
+}
@@ -0,0 +1,237 @@
+package io.github.crew102.rapidrake;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * A compact, columnar store for the results of many documents. Rather than holding a {@link Result} (with its own 
+ * arrays of strings) per document, a batch stores every keyword as an int id into a {@link KeywordDictionary} and 
+ * keeps the ids, stemmed ids, scores and counts of all documents in flat arrays, with each document's keywords 
+ * located by an offset. Memory therefore grows with the vocabulary and with the total number of keywords (at 8 to 16
+ * bytes each), not with the number of copies of each keyword string.
+ * 
+ * <p>Results are added in order and given document indexes 0, 1, 2, ... A Result for a document is only built when
+ * {@link #get} is called; {@link #forEachKeyword} walks every keyword of every document without building any. To
+ * fill a batch without holding all of the Results at once, add them as they're produced:
+ * 
+ * <pre>
+ * ResultBatch batch = new ResultBatch();
+ * rakeAlg.rakeAll(docs.stream()).forEachOrdered(batch::add);
+ * </pre>
+ * 
+ * Not thread safe.
+ */
+public class ResultBatch {
+  
+  /**
+   * Receives the keywords of a batch, one at a time.
+   */
+  public interface KeywordConsumer {
+    
+    /**
+     * Accept one keyword of one document.
+     * 
+     * @param docIndex the document's index in the batch
+     * @param keywordId the keyword's id in the batch's dictionary
+     * @param score the keyword's score
+     */
+    void accept(int docIndex, int keywordId, float score);
+    
+  }
+  
+  private final KeywordDictionary dictionary;
+  private int[] offsets = new int[64];
+  private int numDocs;
+  private final BitSet hasStems = new BitSet();
+  private final BitSet hasCounts = new BitSet();
+  
+  private int[] fullIds = new int[256];
+  private int[] stemmedIds = new int[256];
+  private float[] scores = new float[256];
+  private int[] counts;
+  
+  /**
+   * Constructor for a batch with its own dictionary.
+   */
+  public ResultBatch() {
+    this(new KeywordDictionary());
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param dictionary the dictionary to store keywords in, which may be shared with other batches
+   */
+  public ResultBatch(KeywordDictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+  
+  /**
+   * Add a document's result to the batch. The Result isn't kept, so it can be discarded (or changed) afterwards.
+   * 
+   * @param result the result
+   * @return the document's index in the batch
+   */
+  public int add(Result result) {
+    
+    String[] full = result.getFullKeywords();
+    String[] stemmed = result.getStemmedKeywords();
+    float[] resultScores = result.getScores();
+    int[] resultCounts = result.getCounts();
+    int n = full.length;
+    int start = offsets[numDocs];
+    ensureKeywordCapacity(start + n, resultCounts != null);
+    
+    for (int i = 0; i < n; i++) {
+      fullIds[start + i] = dictionary.intern(full[i]);
+      stemmedIds[start + i] = stemmed == null || stemmed[i] == null ? -1 : dictionary.intern(stemmed[i]);
+      scores[start + i] = resultScores[i];
+      if (resultCounts != null) {
+        counts[start + i] = resultCounts[i];
+      }
+    }
+    
+    int docIndex = numDocs++;
+    if (numDocs + 1 > offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[numDocs] = start + n;
+    hasStems.set(docIndex, stemmed != null);
+    hasCounts.set(docIndex, resultCounts != null);
+    return docIndex;
+  }
+  
+  /**
+   * Add the results of several documents to the batch.
+   * 
+   * @param results the results
+   */
+  public void addAll(Iterable<Result> results) {
+    for (Result result : results) {
+      add(result);
+    }
+  }
+  
+  /**
+   * @return the number of documents in the batch
+   */
+  public int size() {
+    return numDocs;
+  }
+  
+  /**
+   * @return the total number of keywords (counting repeats) of all of the documents in the batch
+   */
+  public int getNumKeywords() {
+    return offsets[numDocs];
+  }
+  
+  /**
+   * @return the dictionary that the batch's keyword ids refer to
+   */
+  public KeywordDictionary getDictionary() {
+    return dictionary;
+  }
+  
+  /**
+   * @param docIndex a document's index in the batch
+   * @return the number of keywords the document has
+   */
+  public int getNumKeywords(int docIndex) {
+    checkDoc(docIndex);
+    return offsets[docIndex + 1] - offsets[docIndex];
+  }
+  
+  /**
+   * @param docIndex a document's index in the batch
+   * @param i the position of a keyword within the document
+   * @return the keyword's id in the dictionary
+   */
+  public int getKeywordId(int docIndex, int i) {
+    return fullIds[position(docIndex, i)];
+  }
+  
+  /**
+   * @param docIndex a document's index in the batch
+   * @param i the position of a keyword within the document
+   * @return the keyword's score
+   */
+  public float getScore(int docIndex, int i) {
+    return scores[position(docIndex, i)];
+  }
+  
+  /**
+   * Build a Result for a document. Each call builds a new Result, whose keyword strings are those in the dictionary.
+   * 
+   * @param docIndex a document's index in the batch
+   * @return a Result equal to the one that was added
+   */
+  public Result get(int docIndex) {
+    
+    checkDoc(docIndex);
+    int start = offsets[docIndex];
+    int n = offsets[docIndex + 1] - start;
+    
+    String[] full = new String[n];
+    String[] stemmed = hasStems.get(docIndex) ? new String[n] : null;
+    for (int i = 0; i < n; i++) {
+      full[i] = dictionary.getKeyword(fullIds[start + i]);
+      if (stemmed != null) {
+        int stemmedId = stemmedIds[start + i];
+        stemmed[i] = stemmedId < 0 ? null : dictionary.getKeyword(stemmedId);
+      }
+    }
+    float[] docScores = Arrays.copyOfRange(scores, start, start + n);
+    
+    if (hasCounts.get(docIndex)) {
+      return new Result(full, stemmed, docScores, Arrays.copyOfRange(counts, start, start + n));
+    }
+    return new Result(full, stemmed, docScores);
+  }
+  
+  /**
+   * Walk every keyword of every document, in document order, without building any Results or strings.
+   * 
+   * @param consumer receives each keyword
+   */
+  public void forEachKeyword(KeywordConsumer consumer) {
+    for (int d = 0; d < numDocs; d++) {
+      for (int k = offsets[d]; k < offsets[d + 1]; k++) {
+        consumer.accept(d, fullIds[k], scores[k]);
+      }
+    }
+  }
+  
+  private int position(int docIndex, int i) {
+    checkDoc(docIndex);
+    int start = offsets[docIndex];
+    if (i < 0 || i >= offsets[docIndex + 1] - start) {
+      throw new IndexOutOfBoundsException("Index: " + i + ", size: " + (offsets[docIndex + 1] - start));
+    }
+    return start + i;
+  }
+  
+  private void checkDoc(int docIndex) {
+    if (docIndex < 0 || docIndex >= numDocs) {
+      throw new IndexOutOfBoundsException("Index: " + docIndex + ", size: " + numDocs);
+    }
+  }
+  
+  private void ensureKeywordCapacity(int capacity, boolean needCounts) {
+    if (capacity > fullIds.length) {
+      int newLength = Math.max(fullIds.length * 2, capacity);
+      fullIds = Arrays.copyOf(fullIds, newLength);
+      stemmedIds = Arrays.copyOf(stemmedIds, newLength);
+      scores = Arrays.copyOf(scores, newLength);
+      if (counts != null) {
+        counts = Arrays.copyOf(counts, newLength);
+      }
+    }
+    if (needCounts && counts == null) {
+      counts = new int[fullIds.length];
+    }
+  }
+  
+}
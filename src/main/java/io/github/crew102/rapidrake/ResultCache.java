@@ -0,0 +1,261 @@
+package io.github.crew102.rapidrake;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * A bounded cache of RAKE results for documents that are seen more than once (e.g., reposted articles, templated
+ * emails or retried requests). Register one with {@link RakeAlgorithm#setResultCache}.
+ * 
+ * <p>Documents are keyed by a 128-bit hash of their text combined with a fingerprint of the algorithm's 
+ * {@link io.github.crew102.rapidrake.model.RakeParams} (and of the kind of tagger and sentence splitter it uses), so 
+ * one cache can be shared by several RakeAlgorithms. The documents themselves aren't kept. A cache should only be 
+ * shared by RakeAlgorithms that use the same models, since the models aren't part of the key.
+ * 
+ * <p>The cache is split into segments, each a least-recently-used map with its own lock, so threads working on 
+ * different documents rarely contend. Two threads that miss on the same document at the same time both run RAKE on it.
+ * Every Result handed out is a fresh copy, so callers may change it (e.g., with 
+ * {@link Result#distinct()}) without affecting the cache or other callers.
+ */
+public class ResultCache {
+  
+  private static final int DEFAULT_SEGMENTS = 16;
+  
+  private final Segment[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  
+  /**
+   * Constructor.
+   * 
+   * @param maxSize the maximum number of results to keep
+   */
+  public ResultCache(int maxSize) {
+    this(maxSize, DEFAULT_SEGMENTS);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param maxSize the maximum number of results to keep. It's divided evenly between the segments, so a segment may 
+   *        evict results while others still have room.
+   * @param numSegments the number of independently locked segments, which is rounded up to a power of two
+   */
+  public ResultCache(int maxSize, int numSegments) {
+    if (maxSize < 1 || numSegments < 1) {
+      throw new IllegalArgumentException("maxSize and numSegments must be at least 1");
+    }
+    int segmentCount = Integer.highestOneBit(Math.min(numSegments, maxSize));
+    if (segmentCount < Math.min(numSegments, maxSize)) {
+      segmentCount <<= 1;
+    }
+    int segmentSize = (maxSize + segmentCount - 1) / segmentCount;
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(segmentSize, evictions);
+    }
+  }
+  
+  /**
+   * @return the number of lookups that found a result
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+  
+  /**
+   * @return the number of lookups that didn't find a result
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+  
+  /**
+   * @return the number of results evicted to make room for others
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+  
+  /**
+   * @return the number of results in the cache
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized(segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+  
+  /**
+   * Remove every result from the cache. The counters aren't reset.
+   */
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized(segment) {
+        segment.clear();
+      }
+    }
+  }
+  
+  /**
+   * Look a document up, running <code>rake</code> on it and caching the result if it isn't found.
+   * 
+   * @param fingerprint identifies the settings <code>rake</code> runs RAKE with
+   * @param txtEl the document
+   * @param rake computes the result for a document that isn't in the cache
+   * @return a copy of the cached result, or the newly computed one
+   */
+  Result getOrCompute(long fingerprint, String txtEl, Function<String, Result> rake) {
+    
+    Key key = Key.of(txtEl, fingerprint);
+    Segment segment = segments[(int) key.h2 & (segments.length - 1)];
+    
+    Result cached;
+    synchronized(segment) {
+      cached = segment.get(key);
+    }
+    if (cached != null) {
+      hits.increment();
+      return cached.copy();
+    }
+    
+    misses.increment();
+    Result result = rake.apply(txtEl);
+    Result stored = result.copy();
+    synchronized(segment) {
+      segment.put(key, stored);
+    }
+    return result;
+  }
+  
+  /**
+   * Hash a string to 64 bits.
+   */
+  static long hash64(String str, long seed) {
+    return Key.of(str, seed).h1;
+  }
+  
+  private static final class Segment extends LinkedHashMap<Key, Result> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final int capacity;
+    private final LongAdder evictions;
+    
+    Segment(int capacity, LongAdder evictions) {
+      super(Math.min(capacity, 1024) * 2, 0.75f, true);
+      this.capacity = capacity;
+      this.evictions = evictions;
+    }
+    
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+      if (size() > capacity) {
+        evictions.increment();
+        return true;
+      }
+      return false;
+    }
+    
+  }
+  
+  // A 128-bit MurmurHash3 (x64 variant) of a string's chars
+  private static final class Key {
+    
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    
+    final long h1;
+    final long h2;
+    
+    private Key(long h1, long h2) {
+      this.h1 = h1;
+      this.h2 = h2;
+    }
+    
+    static Key of(String str, long seed) {
+      
+      int n = str.length();
+      long h1 = seed;
+      long h2 = seed;
+      int i = 0;
+      
+      for (; i + 8 <= n; i += 8) {
+        h1 ^= mixK1(pack(str, i, 4));
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        h1 = h1 * 5 + 0x52dce729;
+        h2 ^= mixK2(pack(str, i + 4, 4));
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        h2 = h2 * 5 + 0x38495ab5;
+      }
+      
+      int rest = n - i;
+      if (rest > 4) {
+        h2 ^= mixK2(pack(str, i + 4, rest - 4));
+      }
+      if (rest > 0) {
+        h1 ^= mixK1(pack(str, i, Math.min(rest, 4)));
+      }
+      
+      h1 ^= n;
+      h2 ^= n;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix(h1);
+      h2 = fmix(h2);
+      h1 += h2;
+      h2 += h1;
+      return new Key(h1, h2);
+    }
+    
+    private static long pack(String str, int from, int count) {
+      long k = 0;
+      for (int j = 0; j < count; j++) {
+        k |= (long) str.charAt(from + j) << (16 * j);
+      }
+      return k;
+    }
+    
+    private static long mixK1(long k1) {
+      return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+    
+    private static long mixK2(long k2) {
+      return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+    
+    private static long fmix(long k) {
+      k ^= k >>> 33;
+      k *= 0xff51afd7ed558ccdL;
+      k ^= k >>> 33;
+      k *= 0xc4ceb9fe1a85ec53L;
+      k ^= k >>> 33;
+      return k;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return h1 == key.h1 && h2 == key.h2;
+    }
+    
+    @Override
+    public int hashCode() {
+      return (int) (h1 ^ (h1 >>> 32));
+    }
+    
+  }
+  
+}
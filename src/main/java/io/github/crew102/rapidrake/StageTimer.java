@@ -0,0 +1,65 @@
+package io.github.crew102.rapidrake;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import io.github.crew102.rapidrake.opennlpUtils.CachingStemmer;
+
+/**
+ * Per-thread accumulator for the instrumentation of one document, which is handed to a {@link RakeListener} once the 
+ * document is done. It's also the lock-wait callback given to the tagger and sentence detector pools.
+ */
+final class StageTimer implements LongConsumer {
+  
+  private static final RakeStage[] STAGES = RakeStage.values();
+  
+  private final long[] stageNanos = new long[STAGES.length];
+  private final boolean[] stageRan = new boolean[STAGES.length];
+  private long lockWaitNanos;
+  private boolean usedLocks;
+  private long hitsAtStart;
+  private long missesAtStart;
+  private RakeListener listener;
+  
+  void start(RakeListener listener, CachingStemmer stemmer) {
+    this.listener = listener;
+    Arrays.fill(stageNanos, 0);
+    Arrays.fill(stageRan, false);
+    lockWaitNanos = 0;
+    usedLocks = false;
+    hitsAtStart = stemmer.getHits();
+    missesAtStart = stemmer.getMisses();
+  }
+  
+  void add(RakeStage stage, long nanos) {
+    stageNanos[stage.ordinal()] += nanos;
+    stageRan[stage.ordinal()] = true;
+  }
+  
+  long get(RakeStage stage) {
+    return stageNanos[stage.ordinal()];
+  }
+  
+  @Override
+  public void accept(long lockWait) {
+    lockWaitNanos += lockWait;
+    usedLocks = true;
+  }
+  
+  void finish(CachingStemmer stemmer, boolean stemmed, int numTokens, int numCandidates, int numKeywords) {
+    for (int i = 0; i < STAGES.length; i++) {
+      if (stageRan[i]) {
+        listener.onStage(STAGES[i], stageNanos[i]);
+      }
+    }
+    if (usedLocks) {
+      listener.onLockWait(lockWaitNanos);
+    }
+    listener.onDocument(numTokens, numCandidates, numKeywords);
+    if (stemmed) {
+      listener.onStemmerCache(stemmer.getHits() - hitsAtStart, stemmer.getMisses() - missesAtStart);
+    }
+    listener = null;
+  }
+  
+}
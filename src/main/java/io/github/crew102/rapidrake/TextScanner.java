@@ -0,0 +1,88 @@
+package io.github.crew102.rapidrake;
+
+/**
+ * Character-level helpers that replace the regular expressions RAKE used to run on every document and every token.
+ */
+final class TextScanner {
+  
+  // The characters that get padded with spaces so the whitespace tokenizer splits them off from words
+  private static final String PADDED_CHARS = "-,.?():;\"!/";
+  // The characters matched by \p{Punct}
+  private static final String PUNCT_CHARS = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+  
+  private static final boolean[] IS_PADDED = new boolean[128];
+  private static final boolean[] IS_PUNCT = new boolean[128];
+  
+  static {
+    for (int i = 0; i < PADDED_CHARS.length(); i++) {
+      IS_PADDED[PADDED_CHARS.charAt(i)] = true;
+    }
+    for (int i = 0; i < PUNCT_CHARS.length(); i++) {
+      IS_PUNCT[PUNCT_CHARS.charAt(i)] = true;
+    }
+  }
+  
+  private TextScanner() {
+  }
+  
+  /**
+   * Surround each of the characters <code>-,.?():;"!/</code> with a space. Equivalent to 
+   * <code>txt.replaceAll("([-,.?():;\"!/])", " $1 ")</code>.
+   */
+  static String padPunctuation(String txt) {
+    
+    int n = txt.length();
+    int padCount = 0;
+    for (int i = 0; i < n; i++) {
+      if (isPadded(txt.charAt(i))) {
+        padCount++;
+      }
+    }
+    if (padCount == 0) {
+      return txt;
+    }
+    
+    char[] out = new char[n + 2 * padCount];
+    int j = 0;
+    for (int i = 0; i < n; i++) {
+      char ch = txt.charAt(i);
+      if (isPadded(ch)) {
+        out[j++] = ' ';
+        out[j++] = ch;
+        out[j++] = ' ';
+      } else {
+        out[j++] = ch;
+      }
+    }
+    return new String(out);
+  }
+  
+  /**
+   * Equivalent to <code>token.matches("\\p{Punct}")</code>.
+   */
+  static boolean isPunct(String token) {
+    if (token.length() != 1) {
+      return false;
+    }
+    char ch = token.charAt(0);
+    return ch < 128 && IS_PUNCT[ch];
+  }
+  
+  /**
+   * Equivalent to <code>Pattern.compile("[a-z]").matcher(txt).find()</code>.
+   */
+  static boolean hasWordChar(CharSequence txt) {
+    for (int i = 0; i < txt.length(); i++) {
+      char ch = txt.charAt(i);
+      if (ch >= 'a' && ch <= 'z') {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  static boolean isPadded(char ch) {
+    return ch < 128 && IS_PADDED[ch];
+  }
+  
+}
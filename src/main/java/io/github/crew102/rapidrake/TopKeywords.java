@@ -0,0 +1,103 @@
+package io.github.crew102.rapidrake;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import io.github.crew102.rapidrake.model.Keyword;
+
+/**
+ * Picks the <code>k</code> highest-scoring distinct keywords out of a document's scored candidates, using a bounded 
+ * min-heap of candidate positions. Keywords with equal scores are ranked by where they first appear in the document.
+ * 
+ * <p>A keyword's full string is only built (and checked against the keywords already picked) if its score is high 
+ * enough to get into the heap. Repeats of a keyword always have the same score as its first occurrence and rank 
+ * below it, so a repeat can be dropped whether or not the first occurrence is still in the heap.
+ */
+final class TopKeywords {
+  
+  private TopKeywords() {
+  }
+  
+  /**
+   * @return at most <code>k</code> distinct keywords, sorted by descending score
+   */
+  static ArrayList<Keyword> select(List<Keyword> keywords, int k) {
+    
+    int[] heap = new int[Math.min(k, keywords.size())];
+    int size = 0;
+    HashSet<String> seen = new HashSet<String>();
+    
+    for (int i = 0; i < keywords.size(); i++) {
+      if (size == heap.length && !outranks(keywords, i, heap[0])) {
+        continue;
+      }
+      if (!seen.add(keywords.get(i).getKeyString())) {
+        continue;
+      }
+      if (size < heap.length) {
+        heap[size] = i;
+        siftUp(keywords, heap, size++);
+      } else {
+        heap[0] = i;
+        siftDown(keywords, heap, size);
+      }
+    }
+    
+    // Pop the heap from the bottom of the ranking up
+    Keyword[] sorted = new Keyword[size];
+    for (int n = size; n > 0; n--) {
+      sorted[n - 1] = keywords.get(heap[0]);
+      heap[0] = heap[n - 1];
+      siftDown(keywords, heap, n - 1);
+    }
+    
+    ArrayList<Keyword> top = new ArrayList<Keyword>(size);
+    for (Keyword oneKey : sorted) {
+      top.add(oneKey);
+    }
+    return top;
+  }
+  
+  // True if the keyword at position a should rank above the keyword at position b
+  private static boolean outranks(List<Keyword> keywords, int a, int b) {
+    float scoreA = keywords.get(a).getScore();
+    float scoreB = keywords.get(b).getScore();
+    return scoreA > scoreB || (scoreA == scoreB && a < b);
+  }
+  
+  private static void siftUp(List<Keyword> keywords, int[] heap, int pos) {
+    int item = heap[pos];
+    while (pos > 0) {
+      int parent = (pos - 1) >>> 1;
+      if (!outranks(keywords, heap[parent], item)) {
+        break;
+      }
+      heap[pos] = heap[parent];
+      pos = parent;
+    }
+    heap[pos] = item;
+  }
+  
+  private static void siftDown(List<Keyword> keywords, int[] heap, int size) {
+    if (size == 0) {
+      return;
+    }
+    int item = heap[0];
+    int pos = 0;
+    int half = size >>> 1;
+    while (pos < half) {
+      int child = 2 * pos + 1;
+      if (child + 1 < size && outranks(keywords, heap[child], heap[child + 1])) {
+        child++;
+      }
+      if (!outranks(keywords, item, heap[child])) {
+        break;
+      }
+      heap[pos] = heap[child];
+      pos = child;
+    }
+    heap[pos] = item;
+  }
+  
+}
@@ -0,0 +1,112 @@
+package io.github.crew102.rapidrake;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids (0, 1, 2, ...) to distinct words, in the order the words are first seen. The index can be
+ * cleared and reused, and clearing only touches the slots that were used, so reusing a large index for a small 
+ * document is cheap. Not thread safe.
+ */
+final class WordIndex {
+  
+  private String[] keys = new String[64];
+  private int[] hashes = new int[64];
+  private int[] slotIds = new int[64];
+  private String[] words = new String[32];
+  private int[] wordSlots = new int[32];
+  private int size;
+  
+  /**
+   * Get the id of a word, giving it the next free id if it hasn't been seen since the index was last cleared.
+   */
+  int intern(String word) {
+    
+    int hash = word.hashCode();
+    int mask = keys.length - 1;
+    int slot = spread(hash) & mask;
+    String key;
+    
+    while ((key = keys[slot]) != null) {
+      if (hashes[slot] == hash && key.equals(word)) {
+        return slotIds[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    
+    if (size == words.length) {
+      words = Arrays.copyOf(words, size * 2);
+      wordSlots = Arrays.copyOf(wordSlots, size * 2);
+    }
+    int id = size++;
+    keys[slot] = word;
+    hashes[slot] = hash;
+    slotIds[slot] = id;
+    words[id] = word;
+    wordSlots[id] = slot;
+    
+    // Keep the load factor at or below 0.5
+    if (size * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+    return id;
+  }
+  
+  /**
+   * Get the id of a word without adding it to the index.
+   * 
+   * @return the word's id, or -1 if it isn't in the index
+   */
+  int get(String word) {
+    int hash = word.hashCode();
+    int mask = keys.length - 1;
+    int slot = spread(hash) & mask;
+    String key;
+    while ((key = keys[slot]) != null) {
+      if (hashes[slot] == hash && key.equals(word)) {
+        return slotIds[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+  
+  int size() {
+    return size;
+  }
+  
+  String word(int id) {
+    return words[id];
+  }
+  
+  void clear() {
+    for (int id = 0; id < size; id++) {
+      keys[wordSlots[id]] = null;
+      words[id] = null;
+    }
+    size = 0;
+  }
+  
+  private void rehash(int capacity) {
+    keys = new String[capacity];
+    hashes = new int[capacity];
+    slotIds = new int[capacity];
+    int mask = capacity - 1;
+    for (int id = 0; id < size; id++) {
+      String word = words[id];
+      int hash = word.hashCode();
+      int slot = spread(hash) & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = word;
+      hashes[slot] = hash;
+      slotIds[slot] = id;
+      wordSlots[id] = slot;
+    }
+  }
+  
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+  
+}
@@ -0,0 +1,42 @@
+package io.github.crew102.rapidrake.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The string dictionary of one batch. Strings are only decoded from UTF-8 the first time they're asked for.
+ */
+final class BatchDictionary {
+  
+  private final byte[] bytes;
+  private final int[] starts;
+  private final int[] lengths;
+  private final String[] decoded;
+  
+  /**
+   * @param bytes the batch
+   * @param pos a one-element array holding the position of the dictionary's string count, which is advanced past the
+   *        dictionary
+   */
+  BatchDictionary(byte[] bytes, int[] pos) {
+    this.bytes = bytes;
+    int size = ResultFormat.readVarint(bytes, pos);
+    starts = new int[size];
+    lengths = new int[size];
+    decoded = new String[size];
+    for (int i = 0; i < size; i++) {
+      lengths[i] = ResultFormat.readVarint(bytes, pos);
+      starts[i] = pos[0];
+      pos[0] += lengths[i];
+    }
+  }
+  
+  String get(int id) {
+    String str = decoded[id];
+    if (str == null) {
+      str = new String(bytes, starts[id], lengths[id], StandardCharsets.UTF_8);
+      decoded[id] = str;
+    }
+    return str;
+  }
+  
+}
@@ -0,0 +1,68 @@
+package io.github.crew102.rapidrake.codec;
+
+import java.util.Arrays;
+
+/**
+ * A growable byte array that values are appended to in the binary result format.
+ */
+final class ByteArrayBuilder {
+  
+  private byte[] bytes;
+  private int size;
+  
+  ByteArrayBuilder(int capacity) {
+    bytes = new byte[capacity];
+  }
+  
+  void writeByte(int b) {
+    ensure(1);
+    bytes[size++] = (byte) b;
+  }
+  
+  void writeVarint(int value) {
+    ensure(5);
+    while ((value & ~0x7F) != 0) {
+      bytes[size++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    bytes[size++] = (byte) value;
+  }
+  
+  void writeFloat(float value) {
+    ensure(4);
+    int bits = Float.floatToIntBits(value);
+    bytes[size++] = (byte) (bits >>> 24);
+    bytes[size++] = (byte) (bits >>> 16);
+    bytes[size++] = (byte) (bits >>> 8);
+    bytes[size++] = (byte) bits;
+  }
+  
+  void write(byte[] src, int offset, int length) {
+    ensure(length);
+    System.arraycopy(src, offset, bytes, size, length);
+    size += length;
+  }
+  
+  void write(ByteArrayBuilder src) {
+    write(src.bytes, 0, src.size);
+  }
+  
+  int size() {
+    return size;
+  }
+  
+  byte[] array() {
+    return bytes;
+  }
+  
+  void reset() {
+    size = 0;
+  }
+  
+  private void ensure(int extra) {
+    if (size + extra > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+    }
+  }
+  
+}
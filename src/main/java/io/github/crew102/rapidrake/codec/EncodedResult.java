@@ -0,0 +1,135 @@
+package io.github.crew102.rapidrake.codec;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * A {@link Result} read by {@link ResultReader}, decoded only as far as it's used. The scores can be read without
+ * decoding any keywords; the keyword ids are decoded the first time a keyword or count is asked for, and each 
+ * keyword string is decoded (once per batch) the first time it's asked for. Not thread safe.
+ */
+public class EncodedResult {
+  
+  private final byte[] bytes;
+  private final BatchDictionary dictionary;
+  private final int size;
+  private final int flags;
+  private final int scoresStart;
+  private final int sectionStart;
+  private int[] ids;
+  
+  EncodedResult(byte[] bytes, BatchDictionary dictionary, int size, int flags, int scoresStart, int sectionStart) {
+    this.bytes = bytes;
+    this.dictionary = dictionary;
+    this.size = size;
+    this.flags = flags;
+    this.scoresStart = scoresStart;
+    this.sectionStart = sectionStart;
+  }
+  
+  /**
+   * @return the number of keywords in the result
+   */
+  public int size() {
+    return size;
+  }
+  
+  /**
+   * @param i the position of a keyword
+   * @return the keyword's score
+   */
+  public float getScore(int i) {
+    checkIndex(i);
+    return ResultFormat.readFloat(bytes, scoresStart + 4 * i);
+  }
+  
+  /**
+   * @param i the position of a keyword
+   * @return the keyword
+   */
+  public String getFullKeyword(int i) {
+    checkIndex(i);
+    return dictionary.get(ids()[i]);
+  }
+  
+  /**
+   * @param i the position of a keyword
+   * @return the stemmed version of the keyword, or null if the result had no stemmed keywords
+   */
+  public String getStemmedKeyword(int i) {
+    checkIndex(i);
+    if ((flags & ResultFormat.FLAG_STEMS) == 0) {
+      return null;
+    }
+    int id = ids()[size + i];
+    return id == 0 ? null : dictionary.get(id - 1);
+  }
+  
+  /**
+   * @return whether the result has keyword counts (see {@link Result#getCounts})
+   */
+  public boolean hasCounts() {
+    return (flags & ResultFormat.FLAG_COUNTS) != 0;
+  }
+  
+  /**
+   * @param i the position of a keyword
+   * @return the number of occurrences of the keyword
+   * @throws IllegalStateException if the result has no counts
+   */
+  public int getCount(int i) {
+    checkIndex(i);
+    if (!hasCounts()) {
+      throw new IllegalStateException("The result has no counts");
+    }
+    int offset = (flags & ResultFormat.FLAG_STEMS) != 0 ? 2 * size : size;
+    return ids()[offset + i];
+  }
+  
+  /**
+   * Decode the whole result.
+   * 
+   * @return a Result equal to the one that was written
+   */
+  public Result toResult() {
+    
+    boolean hasStems = (flags & ResultFormat.FLAG_STEMS) != 0;
+    String[] fullKeywords = new String[size];
+    String[] stemmedKeywords = hasStems ? new String[size] : null;
+    float[] scores = new float[size];
+    int[] counts = hasCounts() ? new int[size] : null;
+    
+    for (int i = 0; i < size; i++) {
+      fullKeywords[i] = getFullKeyword(i);
+      scores[i] = getScore(i);
+      if (hasStems) {
+        stemmedKeywords[i] = getStemmedKeyword(i);
+      }
+      if (counts != null) {
+        counts[i] = getCount(i);
+      }
+    }
+    
+    return counts == null ? new Result(fullKeywords, stemmedKeywords, scores) 
+        : new Result(fullKeywords, stemmedKeywords, scores, counts);
+  }
+  
+  private int[] ids() {
+    if (ids == null) {
+      int columns = 1 + Integer.bitCount(flags);
+      int[] decoded = new int[columns * size];
+      int[] pos = {sectionStart};
+      for (int i = 0; i < decoded.length; i++) {
+        decoded[i] = ResultFormat.readVarint(bytes, pos);
+      }
+      ids = decoded;
+    }
+    return ids;
+  }
+  
+  private void checkIndex(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+    }
+  }
+  
+}
@@ -0,0 +1,65 @@
+package io.github.crew102.rapidrake.codec;
+
+/**
+ * Constants and low-level helpers for the binary result format written by {@link ResultWriter} and read by 
+ * {@link ResultReader}.
+ * 
+ * <p>A stream starts with the four magic bytes <code>RRAK</code> and a version byte, followed by any number of 
+ * batches. A batch is laid out as:
+ * 
+ * <pre>
+ * varint   batch length in bytes (not counting this varint)
+ * varint   number of results in the batch
+ * varint   number of strings in the batch's dictionary
+ *          for each string: varint UTF-8 length, UTF-8 bytes
+ *          for each result:
+ * varint     number of keywords (n)
+ * byte       flags (FLAG_STEMS, FLAG_COUNTS)
+ *            n big-endian IEEE 754 floats: the scores
+ * varint     length in bytes of the rest of the result
+ *            n varints: dictionary ids of the full keywords
+ *            if FLAG_STEMS: n varints: dictionary ids of the stemmed keywords, plus 1 (0 means null)
+ *            if FLAG_COUNTS: n varints: the counts
+ * </pre>
+ * 
+ * Varints are unsigned LEB128. Scores have a fixed width so that they can be read without touching the keywords, and 
+ * each result records the length of its variable-width part so that it can be skipped without being decoded.
+ */
+final class ResultFormat {
+  
+  static final byte[] MAGIC = {'R', 'R', 'A', 'K'};
+  static final byte VERSION = 1;
+  
+  static final int FLAG_STEMS = 1;
+  static final int FLAG_COUNTS = 2;
+  
+  private ResultFormat() {
+  }
+  
+  /**
+   * Read a varint from a byte array.
+   * 
+   * @param bytes the array
+   * @param pos a one-element array holding the position to read from, which is advanced past the varint
+   */
+  static int readVarint(byte[] bytes, int[] pos) {
+    int p = pos[0];
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = bytes[p++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    pos[0] = p;
+    return value;
+  }
+  
+  static float readFloat(byte[] bytes, int pos) {
+    int bits = (bytes[pos] & 0xFF) << 24 | (bytes[pos + 1] & 0xFF) << 16 | (bytes[pos + 2] & 0xFF) << 8 
+        | (bytes[pos + 3] & 0xFF);
+    return Float.intBitsToFloat(bits);
+  }
+  
+}
@@ -0,0 +1,131 @@
+package io.github.crew102.rapidrake.codec;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Reads back the {@link Result}s written by a {@link ResultWriter}, in the order they were written.
+ * 
+ * <p>The input is read a batch at a time. Results are handed out as {@link EncodedResult}s, which only decode the 
+ * parts that are used, so e.g. filtering results on their scores never decodes a keyword. An EncodedResult stays valid
+ * after the reader has moved on to later batches or been closed. A reader isn't thread safe.
+ */
+public class ResultReader implements Closeable {
+  
+  private final DataInputStream inStream;
+  
+  private byte[] batch;
+  private BatchDictionary dictionary;
+  private int remainingInBatch;
+  private final int[] pos = new int[1];
+  
+  /**
+   * Constructor. Reads and checks the stream's header.
+   * 
+   * @param inStream the stream to read from
+   * @throws java.io.IOException if the header can't be read or isn't that of a result stream of a supported version
+   */
+  public ResultReader(InputStream inStream) throws java.io.IOException {
+    this.inStream = new DataInputStream(inStream);
+    byte[] magic = new byte[ResultFormat.MAGIC.length];
+    this.inStream.readFully(magic);
+    if (!Arrays.equals(magic, ResultFormat.MAGIC)) {
+      throw new java.io.IOException("Not a rapidrake result stream");
+    }
+    int version = this.inStream.readUnsignedByte();
+    if (version != ResultFormat.VERSION) {
+      throw new java.io.IOException("Unsupported result stream version: " + version);
+    }
+  }
+  
+  /**
+   * Constructor. Reads and checks the channel's header.
+   * 
+   * @param channel the channel to read from
+   * @throws java.io.IOException if the header can't be read or isn't that of a result stream of a supported version
+   */
+  public ResultReader(ReadableByteChannel channel) throws java.io.IOException {
+    this(Channels.newInputStream(channel));
+  }
+  
+  /**
+   * Read the next result, leaving it encoded.
+   * 
+   * @return the next result, or null if there are no more results
+   * @throws java.io.IOException if the input can't be read or is truncated
+   */
+  public EncodedResult next() throws java.io.IOException {
+    
+    while (remainingInBatch == 0) {
+      if (!readBatch()) {
+        return null;
+      }
+    }
+    remainingInBatch--;
+    
+    int size = ResultFormat.readVarint(batch, pos);
+    int flags = batch[pos[0]++];
+    int scoresStart = pos[0];
+    pos[0] += 4 * size;
+    int sectionLength = ResultFormat.readVarint(batch, pos);
+    int sectionStart = pos[0];
+    pos[0] += sectionLength;
+    
+    return new EncodedResult(batch, dictionary, size, flags, scoresStart, sectionStart);
+  }
+  
+  /**
+   * Read and fully decode the next result.
+   * 
+   * @return the next result, or null if there are no more results
+   * @throws java.io.IOException if the input can't be read or is truncated
+   */
+  public Result read() throws java.io.IOException {
+    EncodedResult encoded = next();
+    return encoded == null ? null : encoded.toResult();
+  }
+  
+  /**
+   * Close the underlying input.
+   * 
+   * @throws java.io.IOException if the input can't be closed
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    inStream.close();
+  }
+  
+  private boolean readBatch() throws java.io.IOException {
+    
+    int first = inStream.read();
+    if (first < 0) {
+      return false;
+    }
+    int length = first & 0x7F;
+    int shift = 7;
+    int b = first;
+    while ((b & 0x80) != 0) {
+      b = inStream.read();
+      if (b < 0) {
+        throw new EOFException("Truncated result stream");
+      }
+      length |= (b & 0x7F) << shift;
+      shift += 7;
+    }
+    
+    batch = new byte[length];
+    inStream.readFully(batch);
+    pos[0] = 0;
+    remainingInBatch = ResultFormat.readVarint(batch, pos);
+    dictionary = new BatchDictionary(batch, pos);
+    return true;
+  }
+  
+}
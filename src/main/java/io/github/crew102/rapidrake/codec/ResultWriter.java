@@ -0,0 +1,221 @@
+package io.github.crew102.rapidrake.codec;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import io.github.crew102.rapidrake.corpus.ResultSink;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Writes {@link Result}s in a compact binary format that can be read back with {@link ResultReader}.
+ * 
+ * <p>Results are buffered and written in batches. Each batch has its own string dictionary, so a keyword that occurs
+ * many times within a batch is stored once, and every keyword is then written as a varint dictionary id. Scores are 
+ * written as raw 4-byte floats, so they round-trip exactly. Because it's a {@link ResultSink}, a writer can be handed 
+ * straight to {@link io.github.crew102.rapidrake.corpus.MappedCorpus#rake}.
+ * 
+ * <p>Nothing is written until a batch fills up, {@link #flush} is called or the writer is closed. A writer isn't 
+ * thread safe.
+ */
+public class ResultWriter implements ResultSink, Flushable, Closeable {
+  
+  /**
+   * The number of results per batch used by the constructors that don't take a batch size.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  
+  private final WritableByteChannel channel;
+  private final int batchSize;
+  
+  private final HashMap<String, Integer> dictIds = new HashMap<String, Integer>();
+  private final ArrayList<String> dictStrings = new ArrayList<String>();
+  private final ByteArrayBuilder body = new ByteArrayBuilder(1 << 16);
+  private final ByteArrayBuilder section = new ByteArrayBuilder(1 << 10);
+  private final ByteArrayBuilder frame = new ByteArrayBuilder(1 << 16);
+  private int numResults;
+  private boolean headerWritten;
+  
+  /**
+   * Constructor.
+   * 
+   * @param outStream the stream to write to
+   */
+  public ResultWriter(OutputStream outStream) {
+    this(Channels.newChannel(outStream), DEFAULT_BATCH_SIZE);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param channel the channel to write to
+   */
+  public ResultWriter(WritableByteChannel channel) {
+    this(channel, DEFAULT_BATCH_SIZE);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param channel the channel to write to
+   * @param batchSize the number of results to buffer before writing a batch. Larger batches share a dictionary across
+   *        more results, at the cost of more memory when writing and reading.
+   */
+  public ResultWriter(WritableByteChannel channel, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be at least 1");
+    }
+    this.channel = channel;
+    this.batchSize = batchSize;
+  }
+  
+  /**
+   * Add a result to the current batch, writing the batch out if it's full.
+   * 
+   * @param result the result to write
+   * @throws java.io.IOException if the batch can't be written
+   */
+  public void write(Result result) throws java.io.IOException {
+    
+    String[] fullKeywords = result.getFullKeywords();
+    String[] stemmedKeywords = result.getStemmedKeywords();
+    float[] scores = result.getScores();
+    int[] counts = result.getCounts();
+    int n = fullKeywords.length;
+    
+    int flags = (stemmedKeywords != null ? ResultFormat.FLAG_STEMS : 0) 
+        | (counts != null ? ResultFormat.FLAG_COUNTS : 0);
+    body.writeVarint(n);
+    body.writeByte(flags);
+    for (int i = 0; i < n; i++) {
+      body.writeFloat(scores[i]);
+    }
+    
+    section.reset();
+    for (int i = 0; i < n; i++) {
+      section.writeVarint(dictId(fullKeywords[i]));
+    }
+    if (stemmedKeywords != null) {
+      for (int i = 0; i < n; i++) {
+        section.writeVarint(stemmedKeywords[i] == null ? 0 : dictId(stemmedKeywords[i]) + 1);
+      }
+    }
+    if (counts != null) {
+      for (int i = 0; i < n; i++) {
+        section.writeVarint(counts[i]);
+      }
+    }
+    body.writeVarint(section.size());
+    body.write(section);
+    
+    if (++numResults == batchSize) {
+      writeBatch();
+    }
+  }
+  
+  /**
+   * Add several results, writing out batches as they fill up.
+   * 
+   * @param results the results to write
+   * @throws java.io.IOException if a batch can't be written
+   */
+  public void writeAll(Iterable<Result> results) throws java.io.IOException {
+    for (Result result : results) {
+      write(result);
+    }
+  }
+  
+  /**
+   * Same as {@link #write}, so that the writer can be used as a {@link ResultSink}. Results are always read back in 
+   * the order they were written, so the document index isn't stored.
+   */
+  @Override
+  public void accept(long docIndex, Result result) throws java.io.IOException {
+    write(result);
+  }
+  
+  /**
+   * Write out the current batch, even if it isn't full.
+   * 
+   * @throws java.io.IOException if the batch can't be written
+   */
+  @Override
+  public void flush() throws java.io.IOException {
+    if (numResults > 0) {
+      writeBatch();
+    } else {
+      writeHeader();
+    }
+  }
+  
+  /**
+   * Write out the current batch and close the underlying channel.
+   * 
+   * @throws java.io.IOException if the batch can't be written or the channel can't be closed
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+  
+  private int dictId(String keyword) {
+    Integer id = dictIds.get(keyword);
+    if (id == null) {
+      id = dictStrings.size();
+      dictIds.put(keyword, id);
+      dictStrings.add(keyword);
+    }
+    return id;
+  }
+  
+  private void writeHeader() throws java.io.IOException {
+    if (!headerWritten) {
+      ByteBuffer header = ByteBuffer.allocate(ResultFormat.MAGIC.length + 1);
+      header.put(ResultFormat.MAGIC).put(ResultFormat.VERSION).flip();
+      writeFully(header);
+      headerWritten = true;
+    }
+  }
+  
+  private void writeBatch() throws java.io.IOException {
+    
+    writeHeader();
+    
+    section.reset();
+    section.writeVarint(numResults);
+    section.writeVarint(dictStrings.size());
+    for (String keyword : dictStrings) {
+      byte[] utf8 = keyword.getBytes(StandardCharsets.UTF_8);
+      section.writeVarint(utf8.length);
+      section.write(utf8, 0, utf8.length);
+    }
+    
+    frame.reset();
+    frame.writeVarint(section.size() + body.size());
+    frame.write(section);
+    frame.write(body);
+    writeFully(ByteBuffer.wrap(frame.array(), 0, frame.size()));
+    
+    dictIds.clear();
+    dictStrings.clear();
+    body.reset();
+    numResults = 0;
+  }
+  
+  private void writeFully(ByteBuffer buffer) throws java.io.IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+  
+}
@@ -0,0 +1,202 @@
+package io.github.crew102.rapidrake.corpus;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.crew102.rapidrake.RakeAlgorithm;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * A corpus file holding many documents separated by a delimiter byte (a newline, by default), read through 
+ * memory-mapped I/O.
+ * 
+ * <p>The file is mapped a window at a time (windows are at most 1GB, so files of any size can be read), and document
+ * boundaries are found by scanning the mapped bytes, so documents are never copied into intermediate byte arrays. 
+ * Each document's bytes are decoded straight from the mapping into a per-thread, reused character buffer on the 
+ * thread that runs RAKE on it. Documents are processed in parallel, but results are handed to the {@link ResultSink}
+ * in corpus order, with a bounded number of documents in flight at once.
+ * 
+ * <p>A single document can't be longer than a mapping window.
+ */
+public class MappedCorpus implements Closeable {
+  
+  private static final long WINDOW_SIZE = 1L << 30;
+  
+  private final FileChannel channel;
+  private final byte delimiter;
+  private final long windowSize;
+  private final ThreadLocal<CharsetDecoder> decoders;
+  private final ThreadLocal<CharBuffer[]> charBuffers = ThreadLocal.withInitial(() -> new CharBuffer[1]);
+  
+  /**
+   * Constructor for a UTF-8 file with one document per line.
+   * 
+   * @param path the corpus file
+   * @throws java.io.IOException if the file can't be opened
+   */
+  public MappedCorpus(Path path) throws java.io.IOException {
+    this(path, (byte) '\n', StandardCharsets.UTF_8);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param path the corpus file
+   * @param delimiter the byte that separates documents. It must not occur inside the encoding of any character, which
+   *        is true of any ASCII character in UTF-8 and other ASCII-compatible encodings.
+   * @param charset the character set of the file
+   * @throws java.io.IOException if the file can't be opened
+   */
+  public MappedCorpus(Path path, byte delimiter, Charset charset) throws java.io.IOException {
+    this(path, delimiter, charset, WINDOW_SIZE);
+  }
+  
+  MappedCorpus(Path path, byte delimiter, final Charset charset, long windowSize) throws java.io.IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.delimiter = delimiter;
+    this.windowSize = windowSize;
+    this.decoders = ThreadLocal.withInitial(() -> charset.newDecoder()
+                                                          .onMalformedInput(CodingErrorAction.REPLACE)
+                                                          .onUnmappableCharacter(CodingErrorAction.REPLACE));
+  }
+  
+  /**
+   * @return the size of the corpus file, in bytes
+   * @throws java.io.IOException if the file's size can't be read
+   */
+  public long size() throws java.io.IOException {
+    return channel.size();
+  }
+  
+  /**
+   * Run RAKE over every document in the corpus, using the common fork/join pool.
+   * 
+   * @param rakeAlg the algorithm to run on each document
+   * @param sink where the results should go, in corpus order
+   * @return the number of documents processed
+   * @throws java.io.IOException if the file can't be read, a document is too long, or <code>sink</code> fails
+   */
+  public long rake(RakeAlgorithm rakeAlg, ResultSink sink) throws java.io.IOException {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    return rake(rakeAlg, pool, 4 * pool.getParallelism(), sink);
+  }
+  
+  /**
+   * Run RAKE over every document in the corpus.
+   * 
+   * @param rakeAlg the algorithm to run on each document
+   * @param executor the executor that should run RAKE
+   * @param maxInFlight the maximum number of documents that can be queued or running at once
+   * @param sink where the results should go, in corpus order
+   * @return the number of documents processed
+   * @throws java.io.IOException if the file can't be read, a document is too long, or <code>sink</code> fails
+   */
+  public long rake(final RakeAlgorithm rakeAlg, Executor executor, int maxInFlight, ResultSink sink) 
+      throws java.io.IOException {
+    
+    ArrayDeque<CompletableFuture<Result>> inFlight = new ArrayDeque<CompletableFuture<Result>>();
+    long fileSize = channel.size();
+    long windowStart = 0;
+    long emitted = 0;
+    
+    while (windowStart < fileSize) {
+      
+      long windowLength = Math.min(windowSize, fileSize - windowStart);
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+      boolean lastWindow = windowStart + windowLength == fileSize;
+      int docStart = 0;
+      int limit = (int) windowLength;
+      
+      for (int i = 0; i < limit; i++) {
+        if (window.get(i) == delimiter) {
+          inFlight.add(submit(rakeAlg, slice(window, docStart, i), executor));
+          docStart = i + 1;
+          if (inFlight.size() >= maxInFlight) {
+            sink.accept(emitted++, await(inFlight.poll()));
+          }
+        }
+      }
+      
+      if (lastWindow) {
+        if (docStart < limit) {
+          inFlight.add(submit(rakeAlg, slice(window, docStart, limit), executor));
+        }
+        windowStart = fileSize;
+      } else if (docStart == 0) {
+        throw new java.io.IOException("Document starting at byte " + windowStart + " is longer than " + windowSize + 
+                                      " bytes");
+      } else {
+        // Remap starting at the beginning of the document that runs past the end of this window
+        windowStart += docStart;
+      }
+    }
+    
+    while (!inFlight.isEmpty()) {
+      sink.accept(emitted++, await(inFlight.poll()));
+    }
+    return emitted;
+  }
+  
+  @Override
+  public void close() throws java.io.IOException {
+    channel.close();
+  }
+  
+  private CompletableFuture<Result> submit(final RakeAlgorithm rakeAlg, final ByteBuffer doc, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> rakeAlg.rake(decode(doc)), executor);
+  }
+  
+  private ByteBuffer slice(MappedByteBuffer window, int start, int end) {
+    // Drop the carriage return of a CRLF line ending
+    if (delimiter == '\n' && end > start && window.get(end - 1) == '\r') {
+      end--;
+    }
+    ByteBuffer doc = window.duplicate();
+    doc.limit(end).position(start);
+    return doc;
+  }
+  
+  private String decode(ByteBuffer doc) {
+    
+    CharsetDecoder decoder = decoders.get();
+    CharBuffer[] holder = charBuffers.get();
+    int needed = (int) Math.ceil(doc.remaining() * (double) decoder.maxCharsPerByte());
+    if (holder[0] == null || holder[0].capacity() < needed) {
+      holder[0] = CharBuffer.allocate(Math.max(needed, 1024));
+    }
+    
+    CharBuffer chars = holder[0];
+    chars.clear();
+    decoder.reset();
+    decoder.decode(doc, chars, true);
+    decoder.flush(chars);
+    chars.flip();
+    return chars.toString();
+  }
+  
+  private static Result await(CompletableFuture<Result> future) throws java.io.IOException {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new java.io.IOException(ex.getCause());
+    }
+  }
+  
+}
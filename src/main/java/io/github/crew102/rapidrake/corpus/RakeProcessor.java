@@ -0,0 +1,313 @@
+package io.github.crew102.rapidrake.corpus;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.github.crew102.rapidrake.RakeAlgorithm;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * A push-based pipeline that runs RAKE on documents as they're submitted and hands the results to a
+ * {@link ResultSink} in submission order, with a bounded number of documents in flight.
+ *
+ * <p>Documents are run asynchronously on an executor. A document counts as in flight from the moment it's submitted
+ * until its result has been handed to the sink, and once <code>maxInFlight</code> documents are in flight
+ * {@link #submit} blocks (and {@link #trySubmit} fails) until one is delivered. Producers are therefore held back to
+ * the pace at which results are consumed, and neither the executor's queue nor the buffer of results waiting for an
+ * earlier document can grow past <code>maxInFlight</code> (plus whatever the sink submits; see below). Any number of threads, including virtual threads, can
+ * submit at once; waiting is done with <code>java.util.concurrent</code> locks, which don't pin a virtual thread to
+ * its carrier.
+ *
+ * <p>The sink is called on the executor's threads, one document at a time and without holding any of the processor's
+ * locks, so it may submit further documents (but mustn't call {@link #close}). Documents the sink submits don't wait
+ * for room, since the room freed by the document being delivered may already have been taken by another producer and
+ * waiting for room from the sink would then never end; they count as in flight but don't take a producer's place.
+ * If RAKE or the sink throws anything,
+ * including an <code>Error</code>, the remaining in-flight documents are dropped, later submissions fail, and the 
+ * exception is rethrown by {@link #close}.
+ */
+public class RakeProcessor implements Closeable {
+  
+  private static final Object FAILED = new Object();
+  
+  private final RakeAlgorithm rakeAlg;
+  private final Executor executor;
+  private final ResultSink sink;
+  private final Semaphore permits;
+  
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition drained = lock.newCondition();
+  // Results that have arrived ahead of an earlier document, by document index
+  private final Map<Long, Object> pending = new HashMap<Long, Object>();
+  // Documents the sink submitted, which hold no permit to release when they're delivered
+  private final Set<Long> unpermitted = new HashSet<Long>();
+  private long submitted;
+  private long delivered;
+  private Throwable failure;
+  private boolean closed;
+  private boolean delivering;
+  private Thread deliverer;
+  
+  /**
+   * Constructor for a processor that runs RAKE on the common fork/join pool, with up to four documents per worker
+   * thread in flight.
+   *
+   * @param rakeAlg the algorithm to run on each document
+   * @param sink where the results should go, in submission order
+   */
+  public RakeProcessor(RakeAlgorithm rakeAlg, ResultSink sink) {
+    this(rakeAlg, ForkJoinPool.commonPool(), 4 * ForkJoinPool.commonPool().getParallelism(), sink);
+  }
+  
+  /**
+   * Constructor.
+   *
+   * @param rakeAlg the algorithm to run on each document
+   * @param executor the executor that should run RAKE. See {@link RakeAlgorithm#rakeAsync(String, Executor)}.
+   * @param maxInFlight the maximum number of documents that can be queued, running, or waiting to be delivered at once
+   * @param sink where the results should go, in submission order
+   * @throws IllegalArgumentException if <code>maxInFlight</code> is less than 1
+   */
+  public RakeProcessor(RakeAlgorithm rakeAlg, Executor executor, int maxInFlight, ResultSink sink) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1");
+    }
+    this.rakeAlg = rakeAlg;
+    this.executor = executor;
+    this.sink = sink;
+    this.permits = new Semaphore(maxInFlight);
+  }
+  
+  /**
+   * Submit a document, waiting for room if <code>maxInFlight</code> documents are already in flight (unless it's the
+   * sink that's submitting).
+   *
+   * @param txtEl the document
+   * @return the document's index, which is the index its result will be given to the sink with
+   * @throws InterruptedException if the calling thread is interrupted while waiting for room
+   * @throws IllegalStateException if the processor has been closed or has failed
+   */
+  public long submit(String txtEl) throws InterruptedException {
+    if (isDeliverer()) {
+      return start(txtEl, false);
+    }
+    permits.acquire();
+    return start(txtEl, true);
+  }
+  
+  /**
+   * Submit a document if fewer than <code>maxInFlight</code> documents are in flight (or if it's the sink that's
+   * submitting), without waiting.
+   *
+   * @param txtEl the document
+   * @return the document's index, or -1 if there's no room for it
+   * @throws IllegalStateException if the processor has been closed or has failed
+   */
+  public long trySubmit(String txtEl) {
+    if (isDeliverer()) {
+      return start(txtEl, false);
+    }
+    return permits.tryAcquire() ? start(txtEl, true) : -1;
+  }
+  
+  /**
+   * Submit a document, waiting up to a given time for room if <code>maxInFlight</code> documents are already in
+   * flight (unless it's the sink that's submitting).
+   *
+   * @param txtEl the document
+   * @param timeout the longest time to wait
+   * @param unit the unit of <code>timeout</code>
+   * @return the document's index, or -1 if there was still no room for it after <code>timeout</code>
+   * @throws InterruptedException if the calling thread is interrupted while waiting for room
+   * @throws IllegalStateException if the processor has been closed or has failed
+   */
+  public long trySubmit(String txtEl, long timeout, TimeUnit unit) throws InterruptedException {
+    if (isDeliverer()) {
+      return start(txtEl, false);
+    }
+    return permits.tryAcquire(timeout, unit) ? start(txtEl, true) : -1;
+  }
+  
+  /**
+   * @return the number of documents that have been submitted but not yet delivered to the sink
+   */
+  public long getInFlight() {
+    lock.lock();
+    try {
+      return submitted - delivered;
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Stop accepting documents and wait until every submitted document has been delivered to the sink (or dropped, if
+   * the processor has failed).
+   *
+   * @throws java.io.IOException if the sink threw an IOException, if RAKE threw a checked exception, or if the
+   *         calling thread is interrupted while waiting (as a <code>java.io.InterruptedIOException</code>)
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    
+    Throwable cause;
+    lock.lock();
+    try {
+      closed = true;
+      while (delivered < submitted || delivering) {
+        drained.await();
+      }
+      cause = failure;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new java.io.InterruptedIOException("Interrupted while waiting for in-flight documents");
+    } finally {
+      lock.unlock();
+    }
+    
+    if (cause instanceof java.io.IOException) {
+      throw (java.io.IOException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause != null) {
+      throw new java.io.IOException(cause);
+    }
+  }
+  
+  // Whether the calling thread is inside the sink
+  private boolean isDeliverer() {
+    lock.lock();
+    try {
+      return deliverer == Thread.currentThread();
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  private long start(final String txtEl, boolean permitted) {
+    
+    final long docIndex;
+    lock.lock();
+    try {
+      if (closed || failure != null) {
+        if (permitted) {
+          permits.release();
+        }
+        throw new IllegalStateException(closed ? "Processor is closed" : "Processor has failed", failure);
+      }
+      docIndex = submitted++;
+      if (!permitted) {
+        unpermitted.add(docIndex);
+      }
+    } finally {
+      lock.unlock();
+    }
+    
+    try {
+      // Not CompletableFuture.supplyAsync(...).whenComplete(...), which would call complete() (and so the sink) on 
+      // this thread if RAKE finished before the callback was attached
+      executor.execute(() -> {
+        Result result;
+        try {
+          result = rakeAlg.rake(txtEl);
+        } catch (Throwable ex) {
+          complete(docIndex, null, ex);
+          return;
+        }
+        complete(docIndex, result, null);
+      });
+    } catch (RuntimeException ex) {
+      // The executor refused the task; record the failure so the document's slot is still released
+      complete(docIndex, null, ex);
+      throw ex;
+    }
+    return docIndex;
+  }
+  
+  private void complete(long docIndex, Result result, Throwable ex) {
+    
+    lock.lock();
+    try {
+      if (ex != null) {
+        recordFailure(ex);
+      }
+      pending.put(docIndex, ex == null ? result : FAILED);
+      if (delivering) {
+        // The thread that's delivering will get to this result
+        return;
+      }
+      delivering = true;
+    } finally {
+      lock.unlock();
+    }
+    deliverReady();
+  }
+  
+  // Hand every result that's next in line to the sink. Only one thread delivers at a time, which keeps the results in 
+  // order, and the sink is called without holding the lock, so a slow sink doesn't hold up threads finishing other
+  // documents. A document's permit is released before its result is delivered, and the sink's own submissions skip
+  // the permits altogether, so the sink can submit documents without waiting on another producer.
+  private void deliverReady() {
+    
+    while (true) {
+      
+      Object next;
+      long docIndex;
+      boolean deliver;
+      lock.lock();
+      try {
+        next = pending.remove(delivered);
+        if (next == null) {
+          delivering = false;
+          deliverer = null;
+          if (delivered == submitted) {
+            drained.signalAll();
+          }
+          return;
+        }
+        docIndex = delivered++;
+        if (!unpermitted.remove(docIndex)) {
+          permits.release();
+        }
+        deliver = next != FAILED && failure == null;
+        deliverer = deliver ? Thread.currentThread() : null;
+      } finally {
+        lock.unlock();
+      }
+      
+      if (deliver) {
+        try {
+          sink.accept(docIndex, (Result) next);
+        } catch (Throwable sinkEx) {
+          lock.lock();
+          try {
+            recordFailure(sinkEx);
+          } finally {
+            lock.unlock();
+          }
+        }
+      }
+    }
+  }
+  
+  private void recordFailure(Throwable ex) {
+    if (failure == null) {
+      failure = ex;
+    }
+  }
+  
+}
@@ -0,0 +1,19 @@
+package io.github.crew102.rapidrake.corpus;
+
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Receives the results of running RAKE over the documents of a corpus, one document at a time and in corpus order.
+ */
+public interface ResultSink {
+  
+  /**
+   * Accept the result for one document.
+   * 
+   * @param docIndex the position of the document in the corpus, starting from 0
+   * @param result the result of running RAKE on the document
+   * @throws java.io.IOException if the result can't be written
+   */
+  void accept(long docIndex, Result result) throws java.io.IOException;
+  
+}
@@ -1,13 +1,15 @@
 package io.github.crew102.rapidrake.data;
 
+import io.github.crew102.rapidrake.model.StopwordSet;
+
 /**
  * A data object containing the SMART information retrieval system stop words. See 
  * <a href="https://rdrr.io/rforge/tm/man/stopwords.html">https://rdrr.io/rforge/tm/man/stopwords.html</a> for details.
  */
 public class SmartWords {
   
-  public String[] getSmartWords() {
-    return new String[] {"a", "a's", "able", "about", "above", "according", "accordingly", "across", "actually", 
+  private static final String[] SMART_WORDS = {
+        "a", "a's", "able", "about", "above", "according", "accordingly", "across", "actually", 
         "after", "afterwards", "again", "against", "ain't", "all", "allow", "allows", "almost", "alone", 
         "along", "already", "also", "although", "always", "am", "among", "amongst", "an", "and", "another", 
         "any", "anybody", "anyhow", "anyone", "anything", "anyway", "anyways", "anywhere", "apart", "appear", 
@@ -60,5 +62,25 @@ public class SmartWords {
         "whoever", "whole", "whom", "whose", "why", "will", "willing", "wish", "with", "within", "without", 
         "won't", "wonder", "would", "would", "wouldn't", "x", "y", "yes", "yet", "you", "you'd", "you'll", 
         "you're", "you've", "your", "yours", "yourself", "yourselves", "z", "zero"};
+  
+  private static final StopwordSet SMART_WORD_SET = new StopwordSet(SMART_WORDS);
+  
+  /**
+   * @return a new array holding the stop words, which the caller is free to modify
+   */
+  public String[] getSmartWords() {
+    return SMART_WORDS.clone();
+  }
+  
+  /**
+   * Get the stop words as a set that's built once and shared. Pass it to 
+   * {@link io.github.crew102.rapidrake.model.RakeParams#RakeParams(StopwordSet, String[], int, boolean, String)} so 
+   * that any number of parameter objects use the same set rather than each building its own.
+   * 
+   * @return the shared, immutable set of stop words
+   */
+  public static StopwordSet getSmartWordSet() {
+    return SMART_WORD_SET;
   }
+  
 }
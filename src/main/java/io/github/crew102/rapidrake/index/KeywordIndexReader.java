@@ -0,0 +1,207 @@
+package io.github.crew102.rapidrake.index;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up keywords in a segment file written by {@link KeywordIndexWriter} or {@link SegmentMerger}.
+ * 
+ * <p>The file is memory-mapped rather than read, so opening a segment takes constant time and memory no matter how
+ * many documents it covers, and the operating system's page cache holds whatever parts of it are in use. A lookup 
+ * binary searches the segment's sorted keywords, decoding about log2(number of keywords) of them, and then decodes 
+ * only as many postings as are asked for. A reader can be used by many threads at once.
+ */
+public class KeywordIndexReader implements Closeable {
+  
+  private final MappedSegment segment;
+  private final int numKeywords;
+  private final long indexOffset;
+  private final long numPostings;
+  
+  /**
+   * Constructor.
+   * 
+   * @param path the segment file
+   * @throws java.io.IOException if the file can't be read or isn't a keyword index segment
+   */
+  public KeywordIndexReader(Path path) throws java.io.IOException {
+    
+    this.segment = new MappedSegment(path);
+    long size = segment.size();
+    if (size < SegmentFormat.HEADER_SIZE || segment.getInt(0) != SegmentFormat.MAGIC) {
+      segment.close();
+      throw new java.io.IOException("Not a keyword index segment: " + path);
+    }
+    int version = segment.getInt(4);
+    long numKeywords = segment.getLong(8);
+    this.indexOffset = segment.getLong(16);
+    this.numPostings = segment.getLong(24);
+    if (version != SegmentFormat.VERSION) {
+      segment.close();
+      throw new java.io.IOException("Unsupported keyword index segment version: " + version);
+    }
+    if (numKeywords < 0 || numKeywords > Integer.MAX_VALUE || indexOffset < SegmentFormat.HEADER_SIZE || 
+        numPostings < 0 || indexOffset + 8 * numKeywords != size) {
+      segment.close();
+      throw new java.io.IOException("Corrupt keyword index segment: " + path);
+    }
+    this.numKeywords = (int) numKeywords;
+  }
+  
+  /**
+   * @return the number of distinct keywords in the segment
+   */
+  public int getNumKeywords() {
+    return numKeywords;
+  }
+  
+  /**
+   * @return the total number of postings (keyword/document pairs) in the segment
+   */
+  public long getNumPostings() {
+    return numPostings;
+  }
+  
+  /**
+   * @param ord the position of a keyword in the segment's sorted keywords
+   * @return the keyword
+   */
+  public String getKeyword(int ord) {
+    checkOrd(ord);
+    return segment.readString(new long[] {recordOffset(ord)});
+  }
+  
+  /**
+   * @param ord the position of a keyword in the segment's sorted keywords
+   * @return the number of documents the keyword occurs in
+   */
+  public int getDocFreq(int ord) {
+    checkOrd(ord);
+    long[] pos = {recordOffset(ord)};
+    skipString(pos);
+    return (int) segment.readVarint(pos);
+  }
+  
+  /**
+   * Find a keyword.
+   * 
+   * @param keyword the full form of a keyword, as it appears in {@link io.github.crew102.rapidrake.model.Result}
+   * @return the keyword's position in the segment's sorted keywords, or -1 if it isn't in the segment
+   */
+  public int find(String keyword) {
+    int ord = lowerBound(keyword);
+    return ord < numKeywords && getKeyword(ord).equals(keyword) ? ord : -1;
+  }
+  
+  /**
+   * Get every document a keyword occurs in.
+   * 
+   * @param keyword the full form of a keyword
+   * @return the keyword's postings, which are empty if the keyword isn't in the segment
+   */
+  public Postings getPostings(String keyword) {
+    return getPostings(keyword, Integer.MAX_VALUE);
+  }
+  
+  /**
+   * Get the documents in which a keyword has the highest scores.
+   * 
+   * @param keyword the full form of a keyword
+   * @param topK the maximum number of documents to return
+   * @return the keyword's <code>topK</code> highest-scoring postings, which are empty if the keyword isn't in the 
+   *         segment
+   * @throws IllegalArgumentException if <code>topK</code> is less than 1
+   */
+  public Postings getPostings(String keyword, int topK) {
+    if (topK < 1) {
+      throw new IllegalArgumentException("topK must be at least 1");
+    }
+    int ord = find(keyword);
+    return ord < 0 ? Postings.EMPTY : readPostings(ord, topK);
+  }
+  
+  /**
+   * Get the postings of the keyword at a given position.
+   * 
+   * @param ord the position of a keyword in the segment's sorted keywords
+   * @return the keyword's postings
+   */
+  public Postings getPostings(int ord) {
+    checkOrd(ord);
+    return readPostings(ord, Integer.MAX_VALUE);
+  }
+  
+  /**
+   * Find the keywords that start with a given prefix.
+   * 
+   * @param prefix the prefix
+   * @param maxKeywords the maximum number of keywords to return
+   * @return the keywords that start with <code>prefix</code>, in ascending order
+   */
+  public List<String> getKeywordsWithPrefix(String prefix, int maxKeywords) {
+    ArrayList<String> keywords = new ArrayList<String>();
+    for (int ord = lowerBound(prefix); ord < numKeywords && keywords.size() < maxKeywords; ord++) {
+      String keyword = getKeyword(ord);
+      if (!keyword.startsWith(prefix)) {
+        break;
+      }
+      keywords.add(keyword);
+    }
+    return keywords;
+  }
+  
+  /**
+   * Close the segment file.
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    segment.close();
+  }
+  
+  // The position of the first keyword that isn't less than key
+  private int lowerBound(String key) {
+    int lo = 0;
+    int hi = numKeywords;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (getKeyword(mid).compareTo(key) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+  
+  private Postings readPostings(int ord, int topK) {
+    long[] pos = {recordOffset(ord)};
+    skipString(pos);
+    int count = (int) Math.min(segment.readVarint(pos), topK);
+    long[] docIds = new long[count];
+    float[] scores = new float[count];
+    for (int i = 0; i < count; i++) {
+      docIds[i] = segment.readVarint(pos);
+      scores[i] = segment.getFloat(pos[0]);
+      pos[0] += 4;
+    }
+    return new Postings(docIds, scores);
+  }
+  
+  private void skipString(long[] pos) {
+    long length = segment.readVarint(pos);
+    pos[0] += length;
+  }
+  
+  private long recordOffset(int ord) {
+    return segment.getLong(indexOffset + 8L * ord);
+  }
+  
+  private void checkOrd(int ord) {
+    if (ord < 0 || ord >= numKeywords) {
+      throw new IndexOutOfBoundsException("Index: " + ord + ", size: " + numKeywords);
+    }
+  }
+  
+}
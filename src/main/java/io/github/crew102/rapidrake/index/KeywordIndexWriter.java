@@ -0,0 +1,158 @@
+package io.github.crew102.rapidrake.index;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import io.github.crew102.rapidrake.corpus.ResultSink;
+import io.github.crew102.rapidrake.model.MergePolicy;
+import io.github.crew102.rapidrake.model.Result;
+
+/**
+ * Builds an inverted index from keywords to the documents they occur in, and writes it to a segment file that
+ * {@link KeywordIndexReader} can query.
+ * 
+ * <p>Documents' results are added with their document ids and held in memory (about 16 bytes per distinct keyword of
+ * each document, plus the keywords themselves) until {@link #write} sorts the keywords, sorts each keyword's postings
+ * by score and writes them out. To index more documents than fit in memory, write a segment every so often, 
+ * {@link #clear} the writer, and combine the segments with {@link SegmentMerger}. Since a writer is a 
+ * {@link ResultSink}, it can be handed straight to {@link io.github.crew102.rapidrake.corpus.MappedCorpus#rake} or 
+ * a {@link io.github.crew102.rapidrake.corpus.RakeProcessor}, in which case the document ids are the documents' 
+ * positions in the corpus. Not thread safe.
+ */
+public class KeywordIndexWriter implements ResultSink {
+  
+  private final HashMap<String, Integer> keywordIds = new HashMap<String, Integer>();
+  private final ArrayList<String> keywords = new ArrayList<String>();
+  
+  private int[] postingKeywords = new int[1024];
+  private long[] postingDocs = new long[1024];
+  private float[] postingScores = new float[1024];
+  private int numPostings;
+  
+  /**
+   * Add a document's keywords to the index. A keyword that occurs more than once in the document is only indexed
+   * once.
+   * 
+   * @param docId the document's id, which must not be negative. Each document should only be added once.
+   * @param result the result of running RAKE on the document
+   * @throws IllegalArgumentException if <code>docId</code> is negative
+   */
+  public void add(long docId, Result result) {
+    
+    if (docId < 0) {
+      throw new IllegalArgumentException("Document ids can't be negative");
+    }
+    
+    // A keyword has the same score everywhere in a document, so dropping repeats doesn't lose anything
+    Result distinct = result.distinct(false, MergePolicy.KEEP_FIRST);
+    String[] full = distinct.getFullKeywords();
+    float[] scores = distinct.getScores();
+    
+    for (int i = 0; i < full.length; i++) {
+      Integer id = keywordIds.get(full[i]);
+      if (id == null) {
+        id = keywords.size();
+        keywordIds.put(full[i], id);
+        keywords.add(full[i]);
+      }
+      if (numPostings == postingDocs.length) {
+        int capacity = numPostings * 2;
+        postingKeywords = Arrays.copyOf(postingKeywords, capacity);
+        postingDocs = Arrays.copyOf(postingDocs, capacity);
+        postingScores = Arrays.copyOf(postingScores, capacity);
+      }
+      postingKeywords[numPostings] = id;
+      postingDocs[numPostings] = docId;
+      postingScores[numPostings] = scores[i];
+      numPostings++;
+    }
+  }
+  
+  /**
+   * Same as {@link #add}.
+   */
+  @Override
+  public void accept(long docIndex, Result result) {
+    add(docIndex, result);
+  }
+  
+  /**
+   * @return the number of distinct keywords added so far
+   */
+  public int getNumKeywords() {
+    return keywords.size();
+  }
+  
+  /**
+   * @return the number of postings (keyword/document pairs) added so far
+   */
+  public int getNumPostings() {
+    return numPostings;
+  }
+  
+  /**
+   * Write everything added so far to a segment file. The writer keeps its contents, so more documents can be added
+   * and written again.
+   * 
+   * @param path the segment file, which is replaced if it exists
+   * @throws java.io.IOException if the file can't be written
+   */
+  public void write(Path path) throws java.io.IOException {
+    
+    int numKeywords = keywords.size();
+    Integer[] sorted = new Integer[numKeywords];
+    for (int id = 0; id < numKeywords; id++) {
+      sorted[id] = id;
+    }
+    Arrays.sort(sorted, (a, b) -> keywords.get(a).compareTo(keywords.get(b)));
+    
+    // Bucket the postings by keyword, keeping the order they were added in
+    int[] starts = new int[numKeywords + 1];
+    for (int p = 0; p < numPostings; p++) {
+      starts[postingKeywords[p] + 1]++;
+    }
+    for (int id = 0; id < numKeywords; id++) {
+      starts[id + 1] += starts[id];
+    }
+    int[] next = Arrays.copyOf(starts, numKeywords);
+    int[] byKeyword = new int[numPostings];
+    for (int p = 0; p < numPostings; p++) {
+      byKeyword[next[postingKeywords[p]]++] = p;
+    }
+    
+    try (SegmentWriter out = new SegmentWriter(path)) {
+      long[] keys = new long[0];
+      for (Integer id : sorted) {
+        int count = starts[id + 1] - starts[id];
+        if (keys.length < count) {
+          keys = new long[Math.max(count, keys.length * 2)];
+        }
+        // Sort by descending score, then by the order the postings were added, by packing both into one long
+        for (int i = 0; i < count; i++) {
+          int p = byKeyword[starts[id] + i];
+          keys[i] = (long) ~SegmentFormat.sortableBits(postingScores[p]) << 32 | p;
+        }
+        Arrays.sort(keys, 0, count);
+        
+        out.startKeyword(keywords.get(id), count);
+        for (int i = 0; i < count; i++) {
+          int p = (int) keys[i];
+          out.addPosting(postingDocs[p], postingScores[p]);
+        }
+      }
+      out.finish();
+    }
+  }
+  
+  /**
+   * Remove everything added so far, e.g. after writing a segment.
+   */
+  public void clear() {
+    keywordIds.clear();
+    keywords.clear();
+    numPostings = 0;
+  }
+  
+}
@@ -0,0 +1,119 @@
+package io.github.crew102.rapidrake.index;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped access to a segment file of any size. The file is mapped in windows of at most 1GB, and
+ * values are read with absolute positions only, so a single instance can be read by many threads at once.
+ */
+final class MappedSegment implements Closeable {
+  
+  private static final int WINDOW_BITS = 30;
+  private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+  
+  private final FileChannel channel;
+  private final MappedByteBuffer[] windows;
+  private final long size;
+  
+  MappedSegment(Path path) throws java.io.IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      this.size = channel.size();
+      int numWindows = (int) ((size + WINDOW_MASK) >>> WINDOW_BITS);
+      this.windows = new MappedByteBuffer[numWindows];
+      for (int w = 0; w < numWindows; w++) {
+        long start = (long) w << WINDOW_BITS;
+        windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << WINDOW_BITS, size - start));
+      }
+    } catch (java.io.IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+  
+  long size() {
+    return size;
+  }
+  
+  byte get(long pos) {
+    return windows[(int) (pos >>> WINDOW_BITS)].get((int) (pos & WINDOW_MASK));
+  }
+  
+  int getInt(long pos) {
+    int offset = (int) (pos & WINDOW_MASK);
+    ByteBuffer window = windows[(int) (pos >>> WINDOW_BITS)];
+    if (offset + 4 <= window.limit()) {
+      return window.getInt(offset);
+    }
+    return (get(pos) & 0xFF) << 24 | (get(pos + 1) & 0xFF) << 16 | (get(pos + 2) & 0xFF) << 8 | (get(pos + 3) & 0xFF);
+  }
+  
+  long getLong(long pos) {
+    int offset = (int) (pos & WINDOW_MASK);
+    ByteBuffer window = windows[(int) (pos >>> WINDOW_BITS)];
+    if (offset + 8 <= window.limit()) {
+      return window.getLong(offset);
+    }
+    return (long) getInt(pos) << 32 | (getInt(pos + 4) & 0xFFFFFFFFL);
+  }
+  
+  float getFloat(long pos) {
+    return Float.intBitsToFloat(getInt(pos));
+  }
+  
+  /**
+   * Read a varint.
+   * 
+   * @param pos a one-element array holding the position to read from, which is advanced past the varint
+   */
+  long readVarint(long[] pos) {
+    long p = pos[0];
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = get(p++);
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    pos[0] = p;
+    return value;
+  }
+  
+  /**
+   * Read a string written as a varint UTF-8 length followed by the UTF-8 bytes.
+   * 
+   * @param pos a one-element array holding the position to read from, which is advanced past the string
+   */
+  String readString(long[] pos) {
+    int length = (int) readVarint(pos);
+    byte[] utf8 = new byte[length];
+    long p = pos[0];
+    int done = 0;
+    while (done < length) {
+      ByteBuffer window = windows[(int) (p >>> WINDOW_BITS)].duplicate();
+      window.position((int) (p & WINDOW_MASK));
+      int n = Math.min(window.remaining(), length - done);
+      window.get(utf8, done, n);
+      done += n;
+      p += n;
+    }
+    pos[0] = p;
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+  
+  /**
+   * Close the file. The mapping itself is released when it's garbage collected.
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    channel.close();
+  }
+  
+}
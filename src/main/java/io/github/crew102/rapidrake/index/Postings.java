@@ -0,0 +1,56 @@
+package io.github.crew102.rapidrake.index;
+
+/**
+ * The documents a keyword occurs in, sorted by the keyword's RAKE score in each document (highest first). Documents
+ * with the same score are listed in the order they were added to the index.
+ */
+public final class Postings {
+  
+  static final Postings EMPTY = new Postings(new long[0], new float[0]);
+  
+  private final long[] docIds;
+  private final float[] scores;
+  
+  Postings(long[] docIds, float[] scores) {
+    this.docIds = docIds;
+    this.scores = scores;
+  }
+  
+  /**
+   * @return the number of documents
+   */
+  public int size() {
+    return docIds.length;
+  }
+  
+  /**
+   * @param i a position in the postings, where 0 is the highest-scoring document
+   * @return the id of the document at position <code>i</code>
+   */
+  public long getDocId(int i) {
+    return docIds[i];
+  }
+  
+  /**
+   * @param i a position in the postings, where 0 is the highest-scoring document
+   * @return the keyword's score in the document at position <code>i</code>
+   */
+  public float getScore(int i) {
+    return scores[i];
+  }
+  
+  /**
+   * @return a copy of the document ids, in descending score order
+   */
+  public long[] getDocIds() {
+    return docIds.clone();
+  }
+  
+  /**
+   * @return a copy of the scores, in descending order
+   */
+  public float[] getScores() {
+    return scores.clone();
+  }
+  
+}
@@ -0,0 +1,42 @@
+package io.github.crew102.rapidrake.index;
+
+/**
+ * Constants for the keyword index segment format written by {@link SegmentWriter} and read by 
+ * {@link KeywordIndexReader}.
+ * 
+ * <p>A segment file is laid out as:
+ * 
+ * <pre>
+ * int      magic bytes <code>RKIX</code>
+ * int      version
+ * long     number of keywords (k)
+ * long     offset of the keyword index
+ * long     total number of postings
+ *          for each keyword, in ascending <code>String.compareTo</code> order:
+ * varint     UTF-8 length of the keyword
+ *            UTF-8 bytes of the keyword
+ * varint     number of postings (n)
+ *            n postings, in descending score order: varint document id, big-endian IEEE 754 float score
+ *          the keyword index: k longs, the offset of each keyword's record
+ * </pre>
+ * 
+ * Varints are unsigned LEB128 and multi-byte numbers are big-endian. The fixed-width keyword index lets a reader
+ * binary search the keywords, and because each keyword's postings are sorted by score, the top documents for a 
+ * keyword are read without decoding the rest of its postings.
+ */
+final class SegmentFormat {
+  
+  static final int MAGIC = 0x524B4958;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  
+  private SegmentFormat() {
+  }
+  
+  // Maps a float to an int whose signed order is the float's order (for sorting postings by score)
+  static int sortableBits(float score) {
+    int bits = Float.floatToIntBits(score);
+    return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+  }
+  
+}
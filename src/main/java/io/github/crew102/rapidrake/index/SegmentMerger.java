@@ -0,0 +1,128 @@
+package io.github.crew102.rapidrake.index;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges keyword index segments into one.
+ */
+public final class SegmentMerger {
+  
+  private SegmentMerger() {
+  }
+  
+  /**
+   * Merge several segments into a new segment. The keywords of the segments are walked in step, so only the keyword 
+   * being merged (and its postings) is held in memory, along with the new segment's keyword index. A keyword's 
+   * postings from different segments are combined by score; postings with the same score keep the order of the 
+   * segments in <code>segments</code>. The segments are expected to cover different documents.
+   * 
+   * @param segments the segments to merge
+   * @param output the new segment file, which is replaced if it exists. It mustn't be one of <code>segments</code>.
+   * @throws java.io.IOException if a segment can't be read or the new segment can't be written
+   */
+  public static void merge(List<Path> segments, Path output) throws java.io.IOException {
+    
+    ArrayList<KeywordIndexReader> readers = new ArrayList<KeywordIndexReader>();
+    try {
+      for (Path segment : segments) {
+        readers.add(new KeywordIndexReader(segment));
+      }
+      mergeReaders(readers, output);
+    } finally {
+      for (KeywordIndexReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+  
+  private static void mergeReaders(List<KeywordIndexReader> readers, Path output) throws java.io.IOException {
+    
+    PriorityQueue<Cursor> cursors = new PriorityQueue<Cursor>();
+    for (int r = 0; r < readers.size(); r++) {
+      Cursor cursor = new Cursor(readers.get(r), r);
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+    
+    ArrayList<Cursor> matching = new ArrayList<Cursor>();
+    try (SegmentWriter out = new SegmentWriter(output)) {
+      while (!cursors.isEmpty()) {
+        
+        String keyword = cursors.peek().keyword;
+        matching.clear();
+        while (!cursors.isEmpty() && cursors.peek().keyword.equals(keyword)) {
+          matching.add(cursors.poll());
+        }
+        
+        // matching is in segment order, since ties in the queue are broken by segment
+        Postings[] postings = new Postings[matching.size()];
+        int count = 0;
+        for (int i = 0; i < postings.length; i++) {
+          postings[i] = matching.get(i).reader.getPostings(matching.get(i).ord);
+          count += postings[i].size();
+        }
+        out.startKeyword(keyword, count);
+        writeMerged(postings, out);
+        
+        for (Cursor cursor : matching) {
+          if (cursor.advance()) {
+            cursors.add(cursor);
+          }
+        }
+      }
+      out.finish();
+    }
+  }
+  
+  // Write the postings of several segments in descending score order, taking from earlier segments first on ties
+  private static void writeMerged(Postings[] postings, SegmentWriter out) throws java.io.IOException {
+    int[] next = new int[postings.length];
+    while (true) {
+      int best = -1;
+      for (int s = 0; s < postings.length; s++) {
+        if (next[s] < postings[s].size() && 
+            (best < 0 || postings[s].getScore(next[s]) > postings[best].getScore(next[best]))) {
+          best = s;
+        }
+      }
+      if (best < 0) {
+        return;
+      }
+      out.addPosting(postings[best].getDocId(next[best]), postings[best].getScore(next[best]));
+      next[best]++;
+    }
+  }
+  
+  private static final class Cursor implements Comparable<Cursor> {
+    
+    final KeywordIndexReader reader;
+    final int segment;
+    int ord = -1;
+    String keyword;
+    
+    Cursor(KeywordIndexReader reader, int segment) {
+      this.reader = reader;
+      this.segment = segment;
+    }
+    
+    boolean advance() {
+      if (++ord >= reader.getNumKeywords()) {
+        return false;
+      }
+      keyword = reader.getKeyword(ord);
+      return true;
+    }
+    
+    @Override
+    public int compareTo(Cursor other) {
+      int cmp = keyword.compareTo(other.keyword);
+      return cmp != 0 ? cmp : Integer.compare(segment, other.segment);
+    }
+    
+  }
+  
+}
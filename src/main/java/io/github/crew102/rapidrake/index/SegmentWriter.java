@@ -0,0 +1,143 @@
+package io.github.crew102.rapidrake.index;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams keywords and their postings into a segment file (see {@link SegmentFormat}). Keywords must be added in 
+ * ascending order, each followed by exactly as many postings as it was declared with. Only the keyword index (8 bytes
+ * per keyword) is held in memory until {@link #finish} writes it out.
+ */
+final class SegmentWriter implements Closeable {
+  
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+  private long position;
+  
+  private long[] keywordOffsets = new long[1024];
+  private int numKeywords;
+  private long numPostings;
+  private String lastKeyword;
+  private int postingsLeft;
+  private boolean finished;
+  
+  SegmentWriter(Path path) throws java.io.IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+    // The header is filled in by finish()
+    buffer.put(new byte[SegmentFormat.HEADER_SIZE]);
+    position = SegmentFormat.HEADER_SIZE;
+  }
+  
+  void startKeyword(String keyword, int count) throws java.io.IOException {
+    
+    if (postingsLeft != 0) {
+      throw new IllegalStateException("Keyword \"" + lastKeyword + "\" is missing " + postingsLeft + " postings");
+    }
+    if (lastKeyword != null && lastKeyword.compareTo(keyword) >= 0) {
+      throw new IllegalArgumentException("Keywords must be added in ascending order: \"" + keyword + 
+                                         "\" follows \"" + lastKeyword + "\"");
+    }
+    
+    if (numKeywords == keywordOffsets.length) {
+      keywordOffsets = Arrays.copyOf(keywordOffsets, numKeywords * 2);
+    }
+    keywordOffsets[numKeywords++] = position;
+    
+    byte[] utf8 = keyword.getBytes(StandardCharsets.UTF_8);
+    writeVarint(utf8.length);
+    write(utf8);
+    writeVarint(count);
+    lastKeyword = keyword;
+    postingsLeft = count;
+  }
+  
+  void addPosting(long docId, float score) throws java.io.IOException {
+    if (postingsLeft == 0) {
+      throw new IllegalStateException("Keyword \"" + lastKeyword + "\" already has all of its postings");
+    }
+    writeVarint(docId);
+    ensure(4);
+    buffer.putFloat(score);
+    position += 4;
+    postingsLeft--;
+    numPostings++;
+  }
+  
+  void finish() throws java.io.IOException {
+    
+    if (postingsLeft != 0) {
+      throw new IllegalStateException("Keyword \"" + lastKeyword + "\" is missing " + postingsLeft + " postings");
+    }
+    
+    long indexOffset = position;
+    for (int i = 0; i < numKeywords; i++) {
+      ensure(8);
+      buffer.putLong(keywordOffsets[i]);
+      position += 8;
+    }
+    flush();
+    
+    ByteBuffer header = ByteBuffer.allocate(SegmentFormat.HEADER_SIZE);
+    header.putInt(SegmentFormat.MAGIC).putInt(SegmentFormat.VERSION).putLong(numKeywords).putLong(indexOffset)
+          .putLong(numPostings).flip();
+    long at = 0;
+    while (header.hasRemaining()) {
+      at += channel.write(header, at);
+    }
+    finished = true;
+    channel.close();
+  }
+  
+  /**
+   * Close the file. If {@link #finish} hasn't been called, the file is left incomplete (and unreadable).
+   */
+  @Override
+  public void close() throws java.io.IOException {
+    if (!finished) {
+      channel.close();
+    }
+  }
+  
+  private void writeVarint(long value) throws java.io.IOException {
+    ensure(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+      position++;
+    }
+    buffer.put((byte) value);
+    position++;
+  }
+  
+  private void write(byte[] bytes) throws java.io.IOException {
+    int offset = 0;
+    while (offset < bytes.length) {
+      ensure(1);
+      int n = Math.min(buffer.remaining(), bytes.length - offset);
+      buffer.put(bytes, offset, n);
+      offset += n;
+      position += n;
+    }
+  }
+  
+  private void ensure(int bytes) throws java.io.IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+  
+  private void flush() throws java.io.IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+  
+}
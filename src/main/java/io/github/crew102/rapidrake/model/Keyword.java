@@ -7,7 +7,7 @@ import java.util.Map;
  */
 public class Keyword {
     
-  private final String keyString;
+  private String keyString;
   private final String[] keyStringAry;
   private String[] keyStemmedStringAry; 
   private String keyStemmedString; 
@@ -20,9 +20,15 @@ public class Keyword {
     return keyStemmedStringAry;
   }
   public String getKeyString() {
+    if (keyString == null) {
+      keyString = join(keyStringAry);
+    }
     return keyString;
   }
   public String getStemmedString() {
+    if (keyStemmedString == null && keyStemmedStringAry != null) {
+      keyStemmedString = join(keyStemmedStringAry);
+    }
     return keyStemmedString;
   }
   public float getScore() {
@@ -48,6 +54,27 @@ public class Keyword {
     this.keyStringAry = keyStringAry;
   }
   
+  /**
+   * Constructor. The full form of the keyword isn't built until {@link #getKeyString} is first called, at which point
+   * the tokens are joined with single spaces.
+   * 
+   * @param keyStringAry the tokenized version of the keyword (e.g., {"good", "dogs"})
+   */
+  public Keyword(String[] keyStringAry) {
+    this.keyStringAry = keyStringAry;
+  }
+  
+  /**
+   * Constructor. Neither the full form of the keyword nor its stemmed version is built until it's first asked for.
+   * 
+   * @param keyStringAry the tokenized version of the keyword (e.g., {"good", "dogs"})
+   * @param keyStemmedStringAry the stemmed version of <code>keyStringAry</code> (e.g., {"good", "dog"})
+   */
+  public Keyword(String[] keyStringAry, String[] keyStemmedStringAry) {
+    this.keyStringAry = keyStringAry;
+    this.keyStemmedStringAry = keyStemmedStringAry;
+  }
+  
   /**
    * Sum the scores of each token belonging to a given keyword.
    * 
@@ -73,4 +100,36 @@ public class Keyword {
     score = sum;
   }
   
+  /**
+   * Sum the scores of each token belonging to a given keyword, where the tokens have been mapped to int ids.
+   * 
+   * @param wordScores the document-level scores of each distinct token, indexed by token id
+   * @param wordIds the token ids of the document's keywords, laid end to end
+   * @param offset the position in <code>wordIds</code> of this keyword's first token id. The keyword's token ids 
+   *        are <code>wordIds[offset]</code> through <code>wordIds[offset + getKeyStringAry().length - 1]</code>.
+   * @see io.github.crew102.rapidrake.KeywordScorer
+   */
+  public void sumScore(float[] wordScores, int[] wordIds, int offset) {
+    float sum = 0;
+    for (int i = 0; i < keyStringAry.length; i++) {
+      float val = wordScores[wordIds[offset + i]];
+      sum = val + sum;
+    }
+    score = sum;
+  }
+  
+  private static String join(String[] tokens) {
+    if (tokens.length == 1) {
+      return tokens[0];
+    }
+    StringBuilder buff = new StringBuilder();
+    for (int i = 0; i < tokens.length; i++) {
+      if (i > 0) {
+        buff.append(' ');
+      }
+      buff.append(tokens[i]);
+    }
+    return buff.toString();
+  }
+  
 }
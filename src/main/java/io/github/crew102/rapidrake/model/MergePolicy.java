@@ -0,0 +1,25 @@
+package io.github.crew102.rapidrake.model;
+
+/**
+ * How {@link Result#distinct(boolean, MergePolicy)} combines the scores of keywords that are duplicates of one 
+ * another.
+ */
+public enum MergePolicy {
+  
+  /**
+   * Keep the first occurrence of the keyword (and its score).
+   */
+  KEEP_FIRST,
+  
+  /**
+   * Keep the occurrence of the keyword with the highest score. Only makes a difference when deduplicating on stemmed
+   * keywords, since every occurrence of a given full keyword has the same score.
+   */
+  KEEP_MAX,
+  
+  /**
+   * Keep the first occurrence of the keyword, with a score equal to the sum of the scores of all of its occurrences.
+   */
+  SUM
+  
+}
@@ -0,0 +1,164 @@
+package io.github.crew102.rapidrake.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled form of the <code>phraseDelims</code> regular expression in {@link RakeParams}.
+ * 
+ * <p>Phrase delimiters are almost always given as a character class (e.g., <code>"[-,.?():;\"!/]"</code>). When they
+ * are, the class is compiled into a bitset of delimiter characters once, and splitting a string into phrases is a 
+ * single scan over its characters. Any other regular expression is compiled into a <code>Pattern</code> once and 
+ * splitting falls back to <code>Pattern.split</code>. Either way, {@link #split} returns exactly what 
+ * <code>String.split(phraseDelims)</code> would.
+ */
+public final class PhraseDelimiters {
+  
+  private final String regex;
+  private final BitSet delimChars;
+  private final Pattern pattern;
+  
+  private PhraseDelimiters(String regex, BitSet delimChars, Pattern pattern) {
+    this.regex = regex;
+    this.delimChars = delimChars;
+    this.pattern = pattern;
+  }
+  
+  /**
+   * Compile a phrase delimiter regular expression.
+   * 
+   * @param regex the regular expression used to split text into phrases
+   * @return the compiled delimiters
+   * @throws java.util.regex.PatternSyntaxException if <code>regex</code> isn't a valid regular expression
+   */
+  public static PhraseDelimiters compile(String regex) {
+    // Negated classes aren't compiled to a bitset because they match whole surrogate pairs, not single chars
+    BitSet chars = new BitSet();
+    if (regex.length() > 2 && regex.charAt(0) == '[' && regex.charAt(1) != '^' && parseCharClass(regex, 1, chars)) {
+      return new PhraseDelimiters(regex, chars, null);
+    }
+    return new PhraseDelimiters(regex, null, Pattern.compile(regex));
+  }
+  
+  /**
+   * @return true if the delimiters were compiled into a character set, false if splitting falls back to a regular
+   *         expression
+   */
+  public boolean isCharClass() {
+    return delimChars != null;
+  }
+  
+  /**
+   * Check whether a single character is a phrase delimiter. Only meaningful when {@link #isCharClass} is true.
+   * 
+   * @param ch the character to check
+   * @return true if <code>ch</code> separates phrases
+   */
+  public boolean isDelimiter(char ch) {
+    return delimChars.get(ch);
+  }
+  
+  /**
+   * Split a string into phrases, with the same semantics as <code>String.split</code>.
+   * 
+   * @param txt the string to split
+   * @return the pieces of <code>txt</code> between delimiters
+   */
+  public String[] split(String txt) {
+    
+    if (delimChars == null) {
+      return pattern.split(txt);
+    }
+    
+    ArrayList<String> pieces = null;
+    int start = 0;
+    
+    for (int i = 0; i < txt.length(); i++) {
+      if (isDelimiter(txt.charAt(i))) {
+        if (pieces == null) {
+          pieces = new ArrayList<String>();
+        }
+        pieces.add(txt.substring(start, i));
+        start = i + 1;
+      }
+    }
+    
+    if (pieces == null) {
+      return new String[] {txt};
+    }
+    pieces.add(txt.substring(start));
+    
+    // String.split drops trailing empty strings
+    int size = pieces.size();
+    while (size > 0 && pieces.get(size - 1).isEmpty()) {
+      size--;
+    }
+    return pieces.subList(0, size).toArray(new String[size]);
+  }
+  
+  /**
+   * @return the regular expression these delimiters were compiled from
+   */
+  public String getRegex() {
+    return regex;
+  }
+  
+  @Override
+  public String toString() {
+    return regex;
+  }
+  
+  // Parse the body of a simple character class (literals, escaped punctuation and ranges) into a bitset. Returns
+  // false for anything fancier (predefined classes, nested classes, intersections, trailing text, surrogates), in
+  // which case the caller uses a regular expression instead.
+  private static boolean parseCharClass(String regex, int pos, BitSet chars) {
+    
+    boolean first = true;
+    int prev = -1;
+    
+    while (pos < regex.length()) {
+      char ch = regex.charAt(pos);
+      
+      if (ch == ']' && !first) {
+        return pos == regex.length() - 1 && !chars.isEmpty();
+      }
+      if (ch == '[' || ch == '&' || Character.isSurrogate(ch)) {
+        return false;
+      }
+      
+      int literal;
+      if (ch == '\\') {
+        if (pos + 1 >= regex.length()) {
+          return false;
+        }
+        char escaped = regex.charAt(pos + 1);
+        if (Character.isLetterOrDigit(escaped) || escaped > 127) {
+          return false;
+        }
+        literal = escaped;
+        pos += 2;
+      } else if (ch == '-' && prev >= 0 && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+        char hi = regex.charAt(pos + 1);
+        if (hi == '\\' || hi == '[' || hi == '&' || Character.isSurrogate(hi) || hi < prev) {
+          return false;
+        }
+        chars.set(prev, hi + 1);
+        prev = -1;
+        pos += 2;
+        first = false;
+        continue;
+      } else {
+        literal = ch;
+        pos++;
+      }
+      
+      chars.set(literal);
+      prev = literal;
+      first = false;
+    }
+    
+    return false;
+  }
+  
+}
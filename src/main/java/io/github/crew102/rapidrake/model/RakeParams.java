@@ -12,9 +12,12 @@ public class RakeParams {
   
   private final List<String> stopWords;
   private final List<String> stopPOS;
+  private final StopwordSet stopWordSet;
+  private final StopwordSet stopPOSSet;
   private final int wordMinChar;
   private final boolean stem;
   private final String phraseDelims;
+  private final PhraseDelimiters phraseDelimiters;
   private final SnowballStemmer.ALGORITHM stemmerLang;
 
   /**
@@ -31,14 +34,18 @@ public class RakeParams {
    * @param stem an indicator for whether you want to stem the tokens in each keyword
    * @param phraseDelims a character set containing the punctuation characters used to identify phrases
    * @param stemmerLang the stemming language/algorithm that should be used
+   * @throws java.util.regex.PatternSyntaxException if <code>phraseDelims</code> isn't a valid regular expression
    */
   public RakeParams(String[] stopWords, String[] stopPOS, int wordMinChar, boolean stem, String phraseDelims,
                     SnowballStemmer.ALGORITHM stemmerLang) {
     this.stopWords = Arrays.asList(stopWords);
     this.stopPOS = Arrays.asList(stopPOS);
+    this.stopWordSet = new StopwordSet(stopWords);
+    this.stopPOSSet = new StopwordSet(stopPOS);
     this.wordMinChar = wordMinChar;
     this.stem = stem;
     this.phraseDelims = phraseDelims;
+    this.phraseDelimiters = PhraseDelimiters.compile(phraseDelims);
     this.stemmerLang = stemmerLang;
   }
 
@@ -54,18 +61,57 @@ public class RakeParams {
   public RakeParams(String[] stopWords, String[] stopPOS, int wordMinChar, boolean stem, String phraseDelims) {
     this.stopWords = Arrays.asList(stopWords);
     this.stopPOS = Arrays.asList(stopPOS);
+    this.stopWordSet = new StopwordSet(stopWords);
+    this.stopPOSSet = new StopwordSet(stopPOS);
     this.wordMinChar = wordMinChar;
     this.stem = stem;
     this.phraseDelims = phraseDelims;
+    this.phraseDelimiters = PhraseDelimiters.compile(phraseDelims);
     this.stemmerLang = SnowballStemmer.ALGORITHM.ENGLISH;
   }
   
+  /**
+   * Constructor that uses an already-built set of stopwords, e.g. {@link 
+   * io.github.crew102.rapidrake.data.SmartWords#getSmartWordSet} or one loaded with {@link StopwordSet#readFrom}. 
+   * The set is shared rather than copied, so building many parameter objects from one set costs next to nothing.
+   *
+   * @param stopWords the stopwords
+   * @see RakeParams#RakeParams(String[], String[], int, boolean, String, SnowballStemmer.ALGORITHM)
+   */
+  public RakeParams(StopwordSet stopWords, String[] stopPOS, int wordMinChar, boolean stem, String phraseDelims,
+                    SnowballStemmer.ALGORITHM stemmerLang) {
+    this.stopWords = stopWords.asList();
+    this.stopPOS = Arrays.asList(stopPOS);
+    this.stopWordSet = stopWords;
+    this.stopPOSSet = new StopwordSet(stopPOS);
+    this.wordMinChar = wordMinChar;
+    this.stem = stem;
+    this.phraseDelims = phraseDelims;
+    this.phraseDelimiters = PhraseDelimiters.compile(phraseDelims);
+    this.stemmerLang = stemmerLang;
+  }
+  
+  /**
+   * Constructor that uses an already-built set of stopwords and the English stemmer.
+   *
+   * @see RakeParams#RakeParams(StopwordSet, String[], int, boolean, String, SnowballStemmer.ALGORITHM)
+   */
+  public RakeParams(StopwordSet stopWords, String[] stopPOS, int wordMinChar, boolean stem, String phraseDelims) {
+    this(stopWords, stopPOS, wordMinChar, stem, phraseDelims, SnowballStemmer.ALGORITHM.ENGLISH);
+  }
+  
   public List<String> getStopWords() {
     return stopWords;
   }
   public List<String> getStopPOS() {
     return stopPOS;
   }
+  public StopwordSet getStopWordSet() {
+    return stopWordSet;
+  }
+  public StopwordSet getStopPOSSet() {
+    return stopPOSSet;
+  }
   public int getWordMinChar() {
     return wordMinChar;
   }
@@ -75,6 +121,24 @@ public class RakeParams {
   public String getPhraseDelims() {
     return phraseDelims;
   }
+  public PhraseDelimiters getPhraseDelimiters() {
+    return phraseDelimiters;
+  }
   public SnowballStemmer.ALGORITHM getStemmerLang() { return stemmerLang; }
+  
+  /**
+   * @return whether POS tags can affect the keywords RAKE finds, i.e. whether any of the stop POS tags could match 
+   *         the tag of a token. An empty <code>stopPOS</code>, or one holding only empty strings (which never match
+   *         a tag), means that tokens don't need to be tagged.
+   */
+  public boolean needsPOSTags() {
+    for (String tag : stopPOS) {
+      // Tags are trimmed before they're compared, so a stop tag with surrounding whitespace can't match either
+      if (!tag.isEmpty() && tag.equals(tag.trim())) {
+        return true;
+      }
+    }
+    return false;
+  }
 
 }
@@ -1,8 +1,8 @@
 package io.github.crew102.rapidrake.model;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 /**
  * A data object containing the results of running RAKE on a single document.
@@ -13,6 +13,7 @@ public class Result {
   private String[] fullKeywords;
   private String[] stemmedKeywords;
   private float[] scores;
+  private int[] counts;
   
   /**
    * Constructor.
@@ -26,6 +27,19 @@ public class Result {
     this.stemmedKeywords = stemmedKeywords;
     this.scores = scores;
   }
+  
+  /**
+   * Constructor.
+   *
+   * @param fullKeywords the keywords that RAKE found in the document 
+   * @param stemmedKeywords the stemmed versions of <code>fullKeywords</code>
+   * @param scores the scores assigned to the keywords
+   * @param counts the number of times each keyword occurred in the document
+   */
+  public Result(String[] fullKeywords, String[] stemmedKeywords, float[] scores, int[] counts) {
+    this(fullKeywords, stemmedKeywords, scores);
+    this.counts = counts;
+  }
 
   public String[] getFullKeywords() {
     return fullKeywords;
@@ -36,6 +50,13 @@ public class Result {
   public float[] getScores() {
     return scores;
   }
+  /**
+   * @return the number of occurrences that were merged into each keyword, or null if this result hasn't been through
+   *         {@link #distinct(boolean, MergePolicy)}
+   */
+  public int[] getCounts() {
+    return counts;
+  }
   
 
   /**
@@ -56,36 +77,87 @@ public class Result {
   }
   
   /**
-  * Remove duplicate keywords.
+  * Make a deep copy of this Result, which can be changed (e.g., by {@link #distinct()}) without affecting this one.
+  * 
+  * @return a new Result object with copies of this Result's arrays
+  */
+  public Result copy() {
+    return new Result(fullKeywords.clone(), stemmedKeywords == null ? null : stemmedKeywords.clone(), scores.clone(),
+                      counts == null ? null : counts.clone());
+  }
+  
+  /**
+  * Remove duplicate keywords. Note that this method modifies the Result it's called on; use 
+  * {@link #distinct(boolean, MergePolicy)} if the Result may be shared with other code or other threads.
   * 
   * @return a Result object with duplicate keywords removed 
   */
   public Result distinct() {
-        
-    ArrayList<String> fullKeywordsListOut = new ArrayList<String>();
-    ArrayList<String> stemmedKeyListOut = new ArrayList<String>();
-    ArrayList<Float> scoresListOut = new ArrayList<Float>();
-        
-    for (int i = 0; i < fullKeywords.length; i++) {
-      String oneKey = fullKeywords[i];
-      if (!fullKeywordsListOut.contains(oneKey)) {
-        fullKeywordsListOut.add(oneKey);
-        stemmedKeyListOut.add(stemmedKeywords[i]);
-        scoresListOut.add(scores[i]);
-      }   
-    }
-
-    this.fullKeywords = fullKeywordsListOut.toArray(new String[fullKeywordsListOut.size()]);
-    this.stemmedKeywords = stemmedKeyListOut.toArray(new String[stemmedKeyListOut.size()]);
     
-    float[] scores = new float[scoresListOut.size()];
+    Result deduped = distinct(false, MergePolicy.KEEP_FIRST);
     
-    for (int i = 0; i < scores.length; i ++) {
-      scores[i] = scoresListOut.get(i);
+    this.fullKeywords = deduped.fullKeywords;
+    this.stemmedKeywords = deduped.stemmedKeywords;
+    this.scores = deduped.scores;
+    if (this.counts != null) {
+      this.counts = deduped.counts;
     }
-    this.scores = scores;
     
     return this;
   }
+  
+  /**
+  * Remove duplicate keywords, leaving this Result untouched. Keywords are kept in the order in which they first 
+  * occur, and {@link #getCounts} on the returned Result gives the number of occurrences merged into each one (adding
+  * up this Result's own counts, if it has them).
+  * 
+  * @param byStem whether keywords with the same stemmed form (rather than the same full form) should count as 
+  *        duplicates. Ignored if the keywords weren't stemmed.
+  * @param policy how the scores of duplicate keywords should be combined
+  * @return a new Result object with duplicate keywords removed
+  * @see MergePolicy
+  */
+  public Result distinct(boolean byStem, MergePolicy policy) {
+    
+    int n = fullKeywords.length;
+    boolean useStems = byStem && n > 0 && stemmedKeywords != null && stemmedKeywords[0] != null;
+    String[] keys = useStems ? stemmedKeywords : fullKeywords;
+    
+    HashMap<String, Integer> slots = new HashMap<String, Integer>(n * 2);
+    String[] fullOut = new String[n];
+    String[] stemmedOut = stemmedKeywords == null ? null : new String[n];
+    float[] scoresOut = new float[n];
+    int[] countsOut = new int[n];
+    int size = 0;
+    
+    for (int i = 0; i < n; i++) {
+      Integer slot = slots.get(keys[i]);
+      if (slot == null) {
+        slots.put(keys[i], size);
+        fullOut[size] = fullKeywords[i];
+        if (stemmedOut != null) {
+          stemmedOut[size] = stemmedKeywords[i];
+        }
+        scoresOut[size] = scores[i];
+        countsOut[size] = counts == null ? 1 : counts[i];
+        size++;
+        continue;
+      }
+      int j = slot;
+      countsOut[j] += counts == null ? 1 : counts[i];
+      if (policy == MergePolicy.SUM) {
+        scoresOut[j] += scores[i];
+      } else if (policy == MergePolicy.KEEP_MAX && scores[i] > scoresOut[j]) {
+        fullOut[j] = fullKeywords[i];
+        if (stemmedOut != null) {
+          stemmedOut[j] = stemmedKeywords[i];
+        }
+        scoresOut[j] = scores[i];
+      }
+    }
+    
+    return new Result(Arrays.copyOf(fullOut, size), stemmedOut == null ? null : Arrays.copyOf(stemmedOut, size), 
+                      Arrays.copyOf(scoresOut, size), Arrays.copyOf(countsOut, size));
+  }
 
 }
@@ -0,0 +1,336 @@
+package io.github.crew102.rapidrake.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of words with constant-time lookup, used for stopwords and stop POS tags.
+ * 
+ * <p>The words live in an open-addressing hash table that's built once, when the set is created. Lookups can be done
+ * with any <code>CharSequence</code> (e.g., a <code>StringBuilder</code> or a <code>CharBuffer</code> slice), so
+ * checking a token doesn't require creating a <code>String</code> for it. The set uses the same hash function as
+ * <code>String.hashCode</code>, which means looking up a <code>String</code> reuses its cached hash.
+ * 
+ * <p>A set never changes once built, so one set can be shared by any number of {@link RakeParams} (see 
+ * {@link io.github.crew102.rapidrake.data.SmartWords#getSmartWordSet}). A set can also be compiled to a file with 
+ * {@link #writeTo} and loaded with {@link #readFrom(Path)}. The file holds the hash table itself, so loading it 
+ * doesn't hash or parse any words; it's a single pass that copies each word out of the (memory-mapped) file.
+ */
+public final class StopwordSet extends AbstractSet<String> {
+  
+  private final String[] table;
+  private final int[] hashes;
+  private final int mask;
+  private final int size;
+  private final int maxLength;
+  private volatile List<String> list;
+  
+  private static final int MAGIC = 0x52535450;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 24;
+  
+  /**
+   * Constructor. Duplicate words are only stored once.
+   * 
+   * @param words the words in the set
+   */
+  public StopwordSet(String[] words) {
+    this(Arrays.asList(words));
+  }
+  
+  /**
+   * Constructor. Duplicate words are only stored once.
+   * 
+   * @param words the words in the set
+   */
+  public StopwordSet(Collection<String> words) {
+    
+    // Keep the load factor at or below 0.5 so probe sequences stay short
+    int capacity = Integer.highestOneBit(Math.max(2, words.size()) * 2 - 1) << 1;
+    this.table = new String[capacity];
+    this.hashes = new int[capacity];
+    this.mask = capacity - 1;
+    
+    int count = 0;
+    int longest = 0;
+    for (String word : words) {
+      int hash = word.hashCode();
+      int slot = spread(hash) & mask;
+      while (table[slot] != null && !(hashes[slot] == hash && table[slot].equals(word))) {
+        slot = (slot + 1) & mask;
+      }
+      if (table[slot] == null) {
+        table[slot] = word;
+        hashes[slot] = hash;
+        count++;
+        longest = Math.max(longest, word.length());
+      }
+    }
+    this.size = count;
+    this.maxLength = longest;
+  }
+  
+  private StopwordSet(String[] table, int[] hashes, int size, int maxLength) {
+    this.table = table;
+    this.hashes = hashes;
+    this.mask = table.length - 1;
+    this.size = size;
+    this.maxLength = maxLength;
+  }
+  
+  /**
+   * Load a set that was compiled with {@link #writeTo}. The file is memory-mapped rather than read.
+   * 
+   * @param path the compiled set
+   * @return the set
+   * @throws java.io.IOException if the file can't be read or isn't a compiled stopword set
+   */
+  public static StopwordSet readFrom(Path path) throws java.io.IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+  
+  /**
+   * Load a set that was compiled with {@link #writeTo}, e.g. from a classpath resource. The stream isn't closed.
+   * 
+   * @param inStream the compiled set
+   * @return the set
+   * @throws java.io.IOException if the stream can't be read or doesn't hold a compiled stopword set
+   */
+  public static StopwordSet readFrom(InputStream inStream) throws java.io.IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int n;
+    while ((n = inStream.read(buffer)) != -1) {
+      bytes.write(buffer, 0, n);
+    }
+    return fromBuffer(ByteBuffer.wrap(bytes.toByteArray()));
+  }
+  
+  /**
+   * Compile the set to a stream, in the format read by {@link #readFrom(Path)}: a header, then the length of the 
+   * word in each slot of the hash table (-1 for an empty slot), then the characters of the words. The stream isn't 
+   * closed.
+   * 
+   * @param outStream where to write the set
+   * @throws java.io.IOException if the set can't be written
+   */
+  public void writeTo(OutputStream outStream) throws java.io.IOException {
+    
+    int totalChars = 0;
+    for (String word : table) {
+      totalChars += word == null ? 0 : word.length();
+    }
+    
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outStream));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(table.length);
+    out.writeInt(size);
+    out.writeInt(maxLength);
+    out.writeInt(totalChars);
+    for (String word : table) {
+      out.writeInt(word == null ? -1 : word.length());
+    }
+    for (String word : table) {
+      if (word != null) {
+        out.writeChars(word);
+      }
+    }
+    out.flush();
+  }
+  
+  /**
+   * @return the words in the set, in the set's iteration order. The list can't be modified, and the same list is
+   *         returned every time.
+   */
+  public List<String> asList() {
+    List<String> words = list;
+    if (words == null) {
+      words = Collections.unmodifiableList(new ArrayList<String>(this));
+      list = words;
+    }
+    return words;
+  }
+  
+  /**
+   * Check whether a word is in the set.
+   * 
+   * @param word the word to look up
+   * @return true if <code>word</code> is in the set
+   */
+  public boolean contains(CharSequence word) {
+    return contains(word, 0, word.length());
+  }
+  
+  /**
+   * Check whether a slice of a character sequence is in the set.
+   * 
+   * @param chars the characters to look in
+   * @param start the index of the first character of the word
+   * @param end the index after the last character of the word
+   * @return true if the word <code>chars[start, end)</code> is in the set
+   */
+  public boolean contains(CharSequence chars, int start, int end) {
+    
+    int length = end - start;
+    if (length > maxLength) {
+      return false;
+    }
+    
+    int hash;
+    if (start == 0 && length == chars.length() && chars instanceof String) {
+      hash = chars.hashCode();
+    } else {
+      hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + chars.charAt(i);
+      }
+    }
+    
+    int slot = spread(hash) & mask;
+    String candidate;
+    while ((candidate = table[slot]) != null) {
+      if (hashes[slot] == hash && regionEquals(candidate, chars, start, length)) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+  
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof CharSequence && contains((CharSequence) o);
+  }
+  
+  @Override
+  public int size() {
+    return size;
+  }
+  
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      
+      private int slot = advance(0);
+      
+      private int advance(int from) {
+        while (from < table.length && table[from] == null) {
+          from++;
+        }
+        return from;
+      }
+      
+      @Override
+      public boolean hasNext() {
+        return slot < table.length;
+      }
+      
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        String word = table[slot];
+        slot = advance(slot + 1);
+        return word;
+      }
+    };
+  }
+  
+  private static StopwordSet fromBuffer(ByteBuffer buf) throws java.io.IOException {
+    
+    if (buf.remaining() < HEADER_SIZE || buf.getInt() != MAGIC) {
+      throw new java.io.IOException("Not a compiled stopword set");
+    }
+    int version = buf.getInt();
+    if (version != VERSION) {
+      throw new java.io.IOException("Unsupported stopword set version: " + version);
+    }
+    int capacity = buf.getInt();
+    int size = buf.getInt();
+    int maxLength = buf.getInt();
+    int totalChars = buf.getInt();
+    if (capacity < 2 || Integer.bitCount(capacity) != 1 || size < 0 || size > capacity || totalChars < 0 || 
+        maxLength < 0 || maxLength > totalChars || buf.remaining() != 4L * capacity + 2L * totalChars) {
+      throw corrupt();
+    }
+    
+    IntBuffer lengths = buf.asIntBuffer();
+    buf.position(buf.position() + 4 * capacity);
+    CharBuffer chars = buf.asCharBuffer();
+    
+    String[] table = new String[capacity];
+    int[] hashes = new int[capacity];
+    char[] word = new char[maxLength];
+    int count = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      int length = lengths.get(slot);
+      if (length < -1 || length > maxLength || length > chars.remaining()) {
+        throw corrupt();
+      }
+      if (length >= 0) {
+        chars.get(word, 0, length);
+        table[slot] = new String(word, 0, length);
+        hashes[slot] = table[slot].hashCode();
+        count++;
+      }
+    }
+    if (count != size || chars.hasRemaining()) {
+      throw corrupt();
+    }
+    
+    // Every word must be reachable by probing from its home slot, or lookups would miss it
+    int mask = capacity - 1;
+    for (int slot = 0; slot < capacity; slot++) {
+      if (table[slot] != null) {
+        for (int probe = spread(hashes[slot]) & mask; probe != slot; probe = (probe + 1) & mask) {
+          if (table[probe] == null) {
+            throw corrupt();
+          }
+        }
+      }
+    }
+    return new StopwordSet(table, hashes, size, maxLength);
+  }
+  
+  private static java.io.IOException corrupt() {
+    return new java.io.IOException("Corrupt compiled stopword set");
+  }
+  
+  private static boolean regionEquals(String word, CharSequence chars, int start, int length) {
+    if (word.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (word.charAt(i) != chars.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+  
+}
@@ -0,0 +1,98 @@
+package io.github.crew102.rapidrake.opennlpUtils;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import opennlp.tools.stemmer.snowball.SnowballStemmer;
+
+/**
+ * A wrapper around opennlp.tools.stemmer.snowball.SnowballStemmer that remembers the stems of recently seen words.
+ * 
+ * <p>Words tend to repeat, both within a document and across the documents in a stream, so most calls to 
+ * {@link #stem} are answered from a bounded least-recently-used cache without running the Snowball algorithm. Like 
+ * the underlying stemmer, a <code>CachingStemmer</code> isn't thread safe; {@link #forCurrentThread} hands out one 
+ * stemmer per thread per stemming algorithm.
+ */
+public class CachingStemmer {
+  
+  /**
+   * The number of stems that the per-thread stemmers remember.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 10000;
+  
+  private static final ThreadLocal<EnumMap<SnowballStemmer.ALGORITHM, CachingStemmer>> threadStemmers = 
+      ThreadLocal.withInitial(() -> new EnumMap<SnowballStemmer.ALGORITHM, CachingStemmer>(
+          SnowballStemmer.ALGORITHM.class));
+  
+  private final SnowballStemmer stemmer;
+  private final LinkedHashMap<String, String> cache;
+  private long hits;
+  private long misses;
+  
+  /**
+   * Constructor.
+   * 
+   * @param stemmerLang the stemming language/algorithm that should be used
+   * @param cacheSize the maximum number of stems to remember. Use 0 to turn caching off.
+   */
+  public CachingStemmer(SnowballStemmer.ALGORITHM stemmerLang, final int cacheSize) {
+    this.stemmer = new SnowballStemmer(stemmerLang);
+    this.cache = new LinkedHashMap<String, String>(Math.min(cacheSize, 1024) * 2, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+  
+  /**
+   * Get the calling thread's stemmer for a given algorithm, creating it (with a cache of 
+   * {@link #DEFAULT_CACHE_SIZE} stems) if this is the first time the thread has asked for it.
+   * 
+   * @param stemmerLang the stemming language/algorithm that should be used
+   * @return a stemmer that only the calling thread should use
+   */
+  public static CachingStemmer forCurrentThread(SnowballStemmer.ALGORITHM stemmerLang) {
+    EnumMap<SnowballStemmer.ALGORITHM, CachingStemmer> stemmers = threadStemmers.get();
+    CachingStemmer stemmer = stemmers.get(stemmerLang);
+    if (stemmer == null) {
+      stemmer = new CachingStemmer(stemmerLang, DEFAULT_CACHE_SIZE);
+      stemmers.put(stemmerLang, stemmer);
+    }
+    return stemmer;
+  }
+  
+  /**
+   * Stem a word.
+   * 
+   * @param word the word to stem
+   * @return the stem of <code>word</code>
+   */
+  public String stem(String word) {
+    String stemmed = cache.get(word);
+    if (stemmed != null) {
+      hits++;
+      return stemmed;
+    }
+    misses++;
+    stemmed = stemmer.stem(word).toString();
+    cache.put(word, stemmed);
+    return stemmed;
+  }
+  
+  /**
+   * @return the number of calls to {@link #stem} that were answered from the cache
+   */
+  public long getHits() {
+    return hits;
+  }
+  
+  /**
+   * @return the number of calls to {@link #stem} that had to run the stemming algorithm
+   */
+  public long getMisses() {
+    return misses;
+  }
+  
+}
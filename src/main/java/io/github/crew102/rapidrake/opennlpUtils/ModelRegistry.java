@@ -0,0 +1,213 @@
+package io.github.crew102.rapidrake.opennlpUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.sentdetect.SentenceModel;
+
+/**
+ * A process-wide cache of trained opennlp models. Each model is deserialized at most once per file path (or once per
+ * input stream), no matter how many {@link Tagger}s, {@link SentDetector}s, or 
+ * {@link io.github.crew102.rapidrake.RakeAlgorithm}s ask for it. The models themselves are immutable, so sharing 
+ * them between threads is safe; the per-thread tagger and detector wrappers are handed out by {@link TaggerPool} and 
+ * {@link SentDetectorPool}.
+ * 
+ * <p>Models can be loaded ahead of time (e.g., while a service is starting up) with {@link #preloadPosModel} and 
+ * {@link #preloadSentModel}. Threads that ask for a model while it's still loading wait for that load to finish 
+ * rather than starting their own.
+ */
+public final class ModelRegistry {
+  
+  private static final Map<Object, CompletableFuture<POSModel>> posModelsByPath = 
+      new ConcurrentHashMap<Object, CompletableFuture<POSModel>>();
+  private static final Map<Object, CompletableFuture<SentenceModel>> sentModelsByPath = 
+      new ConcurrentHashMap<Object, CompletableFuture<SentenceModel>>();
+  
+  // Streams don't override equals(), so a WeakHashMap keys them by identity and drops them once they're unreachable
+  private static final Map<Object, CompletableFuture<POSModel>> posModelsByStream = 
+      Collections.synchronizedMap(new WeakHashMap<Object, CompletableFuture<POSModel>>());
+  private static final Map<Object, CompletableFuture<SentenceModel>> sentModelsByStream = 
+      Collections.synchronizedMap(new WeakHashMap<Object, CompletableFuture<SentenceModel>>());
+  
+  private ModelRegistry() {
+  }
+  
+  /**
+   * Get the POS tagging model stored at a given path, loading it if this is the first time it's been asked for.
+   * 
+   * @param taggerModelUrl the URL of a POS tagging model
+   * @throws java.io.IOException if <code>taggerModelUrl</code> is invalid
+   * @return the shared <code>opennlp.tools.postag.POSModel</code>
+   */
+  public static POSModel getPosModel(final String taggerModelUrl) throws java.io.IOException {
+    return getOrLoad(posModelsByPath, pathKey(taggerModelUrl), () -> new Tagger(taggerModelUrl).loadPosModel());
+  }
+  
+  /**
+   * Get the POS tagging model read from a given input stream. The stream is only read (and closed) the first time; 
+   * later calls with the same stream object return the cached model.
+   * 
+   * @param taggerStream the input stream of the POS tagging model
+   * @throws java.io.IOException if <code>taggerStream</code> is invalid
+   * @return the shared <code>opennlp.tools.postag.POSModel</code>
+   */
+  public static POSModel getPosModel(final InputStream taggerStream) throws java.io.IOException {
+    return getOrLoad(posModelsByStream, taggerStream, () -> new Tagger(taggerStream).loadPosModel());
+  }
+  
+  /**
+   * Get the sentence detection model stored at a given path, loading it if this is the first time it's been asked 
+   * for.
+   * 
+   * @param sentDectModelUrl the URL of a sentence detection model
+   * @throws java.io.IOException if <code>sentDectModelUrl</code> is invalid
+   * @return the shared <code>opennlp.tools.sentdetect.SentenceModel</code>
+   */
+  public static SentenceModel getSentModel(final String sentDectModelUrl) throws java.io.IOException {
+    return getOrLoad(sentModelsByPath, pathKey(sentDectModelUrl), 
+                     () -> new SentDetector(sentDectModelUrl).loadSentModel());
+  }
+  
+  /**
+   * Get the sentence detection model read from a given input stream. The stream is only read (and closed) the first 
+   * time; later calls with the same stream object return the cached model.
+   * 
+   * @param sentDectStream the input stream of the sentence detection model
+   * @throws java.io.IOException if <code>sentDectStream</code> is invalid
+   * @return the shared <code>opennlp.tools.sentdetect.SentenceModel</code>
+   */
+  public static SentenceModel getSentModel(final InputStream sentDectStream) throws java.io.IOException {
+    return getOrLoad(sentModelsByStream, sentDectStream, () -> new SentDetector(sentDectStream).loadSentModel());
+  }
+  
+  /**
+   * Start loading a POS tagging model in the background.
+   * 
+   * @param taggerModelUrl the URL of a POS tagging model
+   * @return a future that completes with the shared model, or exceptionally if it couldn't be loaded
+   */
+  public static CompletableFuture<POSModel> preloadPosModel(String taggerModelUrl) {
+    return preloadPosModel(taggerModelUrl, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Start loading a POS tagging model in the background.
+   * 
+   * @param taggerModelUrl the URL of a POS tagging model
+   * @param executor the executor that should load the model
+   * @return a future that completes with the shared model, or exceptionally if it couldn't be loaded
+   */
+  public static CompletableFuture<POSModel> preloadPosModel(final String taggerModelUrl, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return getPosModel(taggerModelUrl);
+      } catch (java.io.IOException ex) {
+        throw new CompletionException(ex);
+      }
+    }, executor);
+  }
+  
+  /**
+   * Start loading a sentence detection model in the background.
+   * 
+   * @param sentDectModelUrl the URL of a sentence detection model
+   * @return a future that completes with the shared model, or exceptionally if it couldn't be loaded
+   */
+  public static CompletableFuture<SentenceModel> preloadSentModel(String sentDectModelUrl) {
+    return preloadSentModel(sentDectModelUrl, ForkJoinPool.commonPool());
+  }
+  
+  /**
+   * Start loading a sentence detection model in the background.
+   * 
+   * @param sentDectModelUrl the URL of a sentence detection model
+   * @param executor the executor that should load the model
+   * @return a future that completes with the shared model, or exceptionally if it couldn't be loaded
+   */
+  public static CompletableFuture<SentenceModel> preloadSentModel(final String sentDectModelUrl, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return getSentModel(sentDectModelUrl);
+      } catch (java.io.IOException ex) {
+        throw new CompletionException(ex);
+      }
+    }, executor);
+  }
+  
+  /**
+   * Drop every cached model, so that the next request for a model reads it from disk again.
+   */
+  public static void clear() {
+    posModelsByPath.clear();
+    sentModelsByPath.clear();
+    posModelsByStream.clear();
+    sentModelsByStream.clear();
+  }
+  
+  private static Object pathKey(String url) {
+    if (url == null) {
+      return "";
+    }
+    File file = new File(url);
+    try {
+      return file.getCanonicalPath();
+    } catch (java.io.IOException ex) {
+      return file.getAbsolutePath();
+    }
+  }
+  
+  private static <M> M getOrLoad(Map<Object, CompletableFuture<M>> cache, Object key, ModelLoader<M> loader)
+      throws java.io.IOException {
+    
+    CompletableFuture<M> pending = new CompletableFuture<M>();
+    CompletableFuture<M> existing = cache.putIfAbsent(key, pending);
+    
+    if (existing == null) {
+      // This thread won the race, so it does the loading. Failed loads aren't cached, so a later call can retry. 
+      // Errors (e.g., running out of memory while reading a model) are caught too, or threads waiting on the same 
+      // model would wait forever.
+      try {
+        pending.complete(loader.load());
+      } catch (Throwable ex) {
+        cache.remove(key, pending);
+        pending.completeExceptionally(ex);
+        throw ex;
+      }
+      existing = pending;
+    }
+    
+    try {
+      return existing.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new java.io.IOException("Interrupted while waiting for model to load", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof java.io.IOException) {
+        throw (java.io.IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new java.io.IOException(cause);
+    }
+  }
+  
+  private interface ModelLoader<M> {
+    M load() throws java.io.IOException;
+  }
+  
+}
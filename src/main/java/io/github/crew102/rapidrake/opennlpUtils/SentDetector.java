@@ -39,6 +39,25 @@ public class SentDetector {
    * @return a <code>opennlp.tools.sentdetect.SentenceDetectorME</code>
    */
   public SentenceDetectorME getSentDetector() throws java.io.IOException {
+    return new SentenceDetectorME(getSentModel());
+  }
+
+  /**
+   * Get the sentence detection model. Unlike the detector itself, the model is thread safe and can be shared by any
+   * number of detectors (see {@link SentDetectorPool}). Models are cached in the {@link ModelRegistry}, so each one
+   * is only read from disk once.
+   * 
+   * @throws java.io.IOException if <code>sentDectModelUrl</code> or <code>sentDectStream</code> is invalid
+   * @return a <code>opennlp.tools.sentdetect.SentenceModel</code>
+   */
+  public SentenceModel getSentModel() throws java.io.IOException {
+    if (sentDectModelUrl != null) {
+      return ModelRegistry.getSentModel(sentDectModelUrl);
+    }
+    return ModelRegistry.getSentModel(sentDectStream);
+  }
+
+  SentenceModel loadSentModel() throws java.io.IOException {
     
     InputStream inStream = sentDectStream;
     SentenceModel modelIn;
@@ -59,7 +78,7 @@ public class SentDetector {
         }
       }
     }
-    return new SentenceDetectorME(modelIn);
+    return modelIn;
   }
 
 }
@@ -0,0 +1,104 @@
+package io.github.crew102.rapidrake.opennlpUtils;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+import opennlp.tools.sentdetect.SentenceDetectorME;
+import opennlp.tools.sentdetect.SentenceModel;
+
+import io.github.crew102.rapidrake.tagging.SentenceSplitter;
+
+/**
+ * A thread-safe sentence detector backed by one or more <code>opennlp.tools.sentdetect.SentenceDetectorME</code>
+ * instances.
+ * 
+ * <p>Works the same way as {@link TaggerPool}: a pool built from a <code>SentenceModel</code> gives every thread its
+ * own detector, while a pool built from a single detector serializes access to it.
+ */
+public class SentDetectorPool implements SentenceSplitter {
+  
+  private final SentenceDetectorME sharedDetector;
+  private final ThreadLocal<SentenceDetectorME> threadDetectors;
+  
+  // Guards the shared detector; see TaggerPool for why this isn't a monitor
+  private final ReentrantLock lock = new ReentrantLock();
+  
+  /**
+   * Constructor. Each thread that calls {@link #sentDetect} gets its own detector, built lazily from
+   * <code>sentModel</code>.
+   * 
+   * @param sentModel the trained sentence detection model shared by all of the pool's detectors
+   */
+  public SentDetectorPool(final SentenceModel sentModel) {
+    this.sharedDetector = null;
+    this.threadDetectors = ThreadLocal.withInitial(() -> new SentenceDetectorME(sentModel));
+  }
+  
+  /**
+   * Constructor. All threads share <code>sentDetectorME</code>, and calls to {@link #sentDetect} are serialized.
+   * 
+   * @param sentDetectorME an instance of opennlp.tools.sentdetect.SentenceDetectorME
+   */
+  public SentDetectorPool(SentenceDetectorME sentDetectorME) {
+    this.sharedDetector = sentDetectorME;
+    this.threadDetectors = null;
+  }
+  
+  /**
+   * Split a string into sentences.
+   * 
+   * @param txt the text to split
+   * @return the sentences found in <code>txt</code>
+   */
+  public String[] sentDetect(String txt) {
+    return sentDetect(txt, null);
+  }
+  
+  /**
+   * Split a string into sentences, reporting how long the calling thread waited for the shared detector.
+   * 
+   * @param txt the text to split
+   * @param lockWait if non-null, given the time (in nanoseconds) spent waiting for the shared detector. It isn't 
+   *        called if each thread has its own detector.
+   * @return the sentences found in <code>txt</code>
+   */
+  public String[] sentDetect(String txt, LongConsumer lockWait) {
+    if (threadDetectors != null) {
+      return threadDetectors.get().sentDetect(txt);
+    }
+    long start = lockWait == null ? 0 : System.nanoTime();
+    lock.lock();
+    try {
+      if (lockWait != null) {
+        lockWait.accept(System.nanoTime() - start);
+      }
+      return sharedDetector.sentDetect(txt);
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * Same as {@link #sentDetect(String)}.
+   */
+  @Override
+  public String[] split(String txt) {
+    return sentDetect(txt, null);
+  }
+  
+  /**
+   * Same as {@link #sentDetect(String, LongConsumer)}.
+   */
+  @Override
+  public String[] split(String txt, LongConsumer lockWait) {
+    return sentDetect(txt, lockWait);
+  }
+  
+  /**
+   * @return true if each thread gets its own detector, false if a single detector is shared behind a lock
+   */
+  public boolean isLockFree() {
+    return threadDetectors != null;
+  }
+  
+}
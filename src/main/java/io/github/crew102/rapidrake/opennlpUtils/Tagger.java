@@ -39,6 +39,25 @@ public class Tagger {
    * @return a <code>opennlp.tools.postag.POSTaggerME</code>
    */
   public POSTaggerME getPosTagger() throws java.io.IOException {
+    return new POSTaggerME(getPosModel());
+  }
+
+  /**
+   * Get the POS tagging model. Unlike the tagger itself, the model is thread safe and can be shared by any number of
+   * taggers (see {@link TaggerPool}). Models are cached in the {@link ModelRegistry}, so each one is only read from
+   * disk once.
+   * 
+   * @throws java.io.IOException if <code>inputString</code> or <code>taggerStream</code> is invalid
+   * @return a <code>opennlp.tools.postag.POSModel</code>
+   */
+  public POSModel getPosModel() throws java.io.IOException {
+    if (taggerModelUrl != null) {
+      return ModelRegistry.getPosModel(taggerModelUrl);
+    }
+    return ModelRegistry.getPosModel(taggerStream);
+  }
+
+  POSModel loadPosModel() throws java.io.IOException {
     
     InputStream inStream = taggerStream;
     POSModel modelIn;
@@ -59,7 +78,7 @@ public class Tagger {
         }
       }
     }
-    return new POSTaggerME(modelIn);
+    return modelIn;
   }
     
 }
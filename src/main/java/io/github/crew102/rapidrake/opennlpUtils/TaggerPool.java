@@ -0,0 +1,90 @@
+package io.github.crew102.rapidrake.opennlpUtils;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTaggerME;
+
+import io.github.crew102.rapidrake.tagging.TokenTagger;
+
+/**
+ * A thread-safe source of POS tags backed by one or more <code>opennlp.tools.postag.POSTaggerME</code> instances.
+ * 
+ * <p>A <code>POSModel</code> is immutable and can be shared freely, but a <code>POSTaggerME</code> keeps per-call
+ * state and can't be used by two threads at once. A pool built from a model gives every thread its own tagger, so
+ * tagging never blocks. A pool built from a single tagger serializes access to that tagger instead.
+ */
+public class TaggerPool implements TokenTagger {
+  
+  private final POSTaggerME sharedTagger;
+  private final ThreadLocal<POSTaggerME> threadTaggers;
+  
+  // Guards the shared tagger. A ReentrantLock rather than a monitor, so that a virtual thread waiting for (or
+  // holding) it can unmount from its carrier thread
+  private final ReentrantLock lock = new ReentrantLock();
+  
+  /**
+   * Constructor. Each thread that calls {@link #tag} gets its own tagger, built lazily from <code>posModel</code>.
+   * 
+   * @param posModel the trained POS tagging model shared by all of the pool's taggers
+   */
+  public TaggerPool(final POSModel posModel) {
+    this.sharedTagger = null;
+    this.threadTaggers = ThreadLocal.withInitial(() -> new POSTaggerME(posModel));
+  }
+  
+  /**
+   * Constructor. All threads share <code>posTaggerME</code>, and calls to {@link #tag} are serialized.
+   * 
+   * @param posTaggerME an instance of opennlp.tools.postag.POSTaggerME
+   */
+  public TaggerPool(POSTaggerME posTaggerME) {
+    this.sharedTagger = posTaggerME;
+    this.threadTaggers = null;
+  }
+  
+  /**
+   * Tag the tokens of a single sentence.
+   * 
+   * @param tokens the tokens of the sentence
+   * @return the POS tags, one per token
+   */
+  @Override
+  public String[] tag(String[] tokens) {
+    return tag(tokens, null);
+  }
+  
+  /**
+   * Tag the tokens of a single sentence, reporting how long the calling thread waited for the shared tagger.
+   * 
+   * @param tokens the tokens of the sentence
+   * @param lockWait if non-null, given the time (in nanoseconds) spent waiting for the shared tagger. It isn't called
+   *        if each thread has its own tagger.
+   * @return the POS tags, one per token
+   */
+  @Override
+  public String[] tag(String[] tokens, LongConsumer lockWait) {
+    if (threadTaggers != null) {
+      return threadTaggers.get().tag(tokens);
+    }
+    long start = lockWait == null ? 0 : System.nanoTime();
+    lock.lock();
+    try {
+      if (lockWait != null) {
+        lockWait.accept(System.nanoTime() - start);
+      }
+      return sharedTagger.tag(tokens);
+    } finally {
+      lock.unlock();
+    }
+  }
+  
+  /**
+   * @return true if each thread gets its own tagger, false if a single tagger is shared behind a lock
+   */
+  public boolean isLockFree() {
+    return threadTaggers != null;
+  }
+  
+}
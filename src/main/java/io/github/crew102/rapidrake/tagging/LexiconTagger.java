@@ -0,0 +1,118 @@
+package io.github.crew102.rapidrake.tagging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A POS tagger that looks each token up in a fixed lexicon, ignoring context. Tokens that aren't in the lexicon get a
+ * default tag.
+ * 
+ * <p>This is far faster than a maxent tagger and needs no model, but it's only an approximation: a word that can be 
+ * more than one part of speech always gets the same tag. It works best when the stop POS tags are a broad class that 
+ * the lexicon covers well, e.g. using {@link #englishVerbs} with the verb tags 
+ * <code>{"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"}</code>. Because each token is tagged on its own, 
+ * {@link io.github.crew102.rapidrake.RakeAlgorithm} tags a whole document at once rather than detecting sentences
+ * first.
+ */
+public class LexiconTagger implements TokenTagger {
+  
+  // Base form, third person singular, past tense, past participle, present participle
+  private static final String[] IRREGULAR_VERBS = {"become becomes became become becoming", 
+      "begin begins began begun beginning", "bring brings brought brought bringing", "buy buys bought bought buying",
+      "choose chooses chose chosen choosing", "come comes came come coming", "eat eats ate eaten eating", 
+      "feel feels felt felt feeling", "find finds found found finding", 
+      "forget forgets forgot forgotten forgetting", "get gets got gotten getting", "give gives gave given giving",
+      "go goes went gone going", "grow grows grew grown growing", "hear hears heard heard hearing", 
+      "hold holds held held holding", "keep keeps kept kept keeping", "know knows knew known knowing",
+      "leave leaves left left leaving", "lose loses lost lost losing", "make makes made made making", 
+      "pay pays paid paid paying", "run runs ran run running", "say says said said saying", "see sees saw seen seeing",
+      "seek seeks sought sought seeking", "sell sells sold sold selling", "send sends sent sent sending", 
+      "sit sits sat sat sitting", "speak speaks spoke spoken speaking", "spend spends spent spent spending",
+      "stand stands stood stood standing", "take takes took taken taking", "teach teaches taught taught teaching",
+      "tell tells told told telling", "think thinks thought thought thinking", 
+      "understand understands understood understood understanding", "win wins won won winning", 
+      "write writes wrote written writing"};
+  
+  private static final String[] REGULAR_VERBS = {"accept", "agree", "allow", "appear", "apply", "believe", 
+      "consider", "continue", "create", "decide", "describe", "develop", "expect", "explain", "follow", "happen", 
+      "include", "involve", "provide", "receive", "remain", "remember", "require", "seem", "suggest"};
+  
+  private static final String[] VERB_TAGS = {"VB", "VBZ", "VBD", "VBN", "VBG"};
+  
+  private final HashMap<String, String> lexicon;
+  private final String defaultTag;
+  
+  /**
+   * Constructor.
+   * 
+   * @param lexicon a map from lower-case words to their POS tags
+   * @param defaultTag the tag given to words that aren't in <code>lexicon</code>
+   */
+  public LexiconTagger(Map<String, String> lexicon, String defaultTag) {
+    this.lexicon = new HashMap<String, String>(lexicon);
+    this.defaultTag = defaultTag;
+  }
+  
+  /**
+   * Build a tagger that knows the forms of the English auxiliary verbs and of a list of common English verbs (tagging 
+   * them with the Penn Treebank verb tags), tags modal verbs <code>MD</code>, and tags everything else 
+   * <code>NN</code>.
+   * 
+   * @return the tagger
+   */
+  public static LexiconTagger englishVerbs() {
+    
+    HashMap<String, String> lexicon = new HashMap<String, String>();
+    
+    String[][] auxiliaries = {{"be", "VB"}, {"am", "VBP"}, {"is", "VBZ"}, {"are", "VBP"}, {"was", "VBD"}, 
+        {"were", "VBD"}, {"been", "VBN"}, {"being", "VBG"}, {"have", "VBP"}, {"has", "VBZ"}, {"had", "VBD"}, 
+        {"having", "VBG"}, {"do", "VBP"}, {"does", "VBZ"}, {"did", "VBD"}, {"done", "VBN"}, {"doing", "VBG"}};
+    for (String[] auxiliary : auxiliaries) {
+      lexicon.put(auxiliary[0], auxiliary[1]);
+    }
+    for (String modal : new String[] {"can", "could", "may", "might", "must", "shall", "should", "will", "would"}) {
+      lexicon.put(modal, "MD");
+    }
+    
+    for (String forms : IRREGULAR_VERBS) {
+      addVerb(lexicon, forms.split(" "));
+    }
+    for (String base : REGULAR_VERBS) {
+      addVerb(lexicon, inflect(base));
+    }
+    
+    return new LexiconTagger(lexicon, "NN");
+  }
+  
+  @Override
+  public String[] tag(String[] tokens) {
+    String[] tags = new String[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      String tag = lexicon.get(tokens[i].toLowerCase());
+      tags[i] = tag == null ? defaultTag : tag;
+    }
+    return tags;
+  }
+  
+  // When two forms are spelled the same (e.g., a past tense and a past participle), the first one's tag wins
+  private static void addVerb(HashMap<String, String> lexicon, String[] forms) {
+    for (int i = 0; i < forms.length; i++) {
+      lexicon.putIfAbsent(forms[i], VERB_TAGS[i]);
+    }
+  }
+  
+  private static String[] inflect(String base) {
+    
+    int n = base.length();
+    char last = base.charAt(n - 1);
+    boolean consonantY = last == 'y' && "aeiou".indexOf(base.charAt(n - 2)) < 0;
+    String stem = consonantY ? base.substring(0, n - 1) + "i" : base;
+    
+    String thirdPerson = consonantY ? stem + "es" : base + "s";
+    String past = consonantY ? stem + "ed" : last == 'e' ? base + "d" : base + "ed";
+    String presentParticiple = last == 'e' && !base.endsWith("ee") ? base.substring(0, n - 1) + "ing" : base + "ing";
+    
+    return new String[] {base, thirdPerson, past, past, presentParticiple};
+  }
+  
+}
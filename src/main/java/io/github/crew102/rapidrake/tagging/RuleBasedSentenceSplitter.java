@@ -0,0 +1,118 @@
+package io.github.crew102.rapidrake.tagging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A deterministic sentence splitter that ends a sentence after a run of <code>.</code>, <code>?</code> and 
+ * <code>!</code> chars that's followed by whitespace and then by something other than a lower-case letter or a digit.
+ * A period right after a single letter (an initial, or part of e.g. "e.g.") or after a common abbreviation such as 
+ * "Mr" or "etc" doesn't end a sentence.
+ * 
+ * <p>It needs no model, never blocks and is much faster than the maxent detector, but it can't learn the cases the
+ * rules get wrong (e.g., an abbreviation that really does end a sentence). Splitters are immutable and thread safe.
+ */
+public class RuleBasedSentenceSplitter implements SentenceSplitter {
+  
+  private static final String[] DEFAULT_ABBREVIATIONS = {"mr", "mrs", "ms", "dr", "prof", "sr", "jr", "st", "vs", 
+      "etc", "inc", "ltd", "co", "corp", "no", "fig", "al", "approx", "dept", "est", "jan", "feb", "mar", "apr", "jun",
+      "jul", "aug", "sep", "sept", "oct", "nov", "dec"};
+  
+  private final Set<String> abbreviations;
+  
+  /**
+   * Constructor that uses a built-in list of common English abbreviations.
+   */
+  public RuleBasedSentenceSplitter() {
+    this(DEFAULT_ABBREVIATIONS);
+  }
+  
+  /**
+   * Constructor.
+   * 
+   * @param abbreviations words (without their trailing period) that a period doesn't end a sentence after. They're 
+   *        matched without regard to case.
+   */
+  public RuleBasedSentenceSplitter(String[] abbreviations) {
+    HashSet<String> lower = new HashSet<String>();
+    for (String abbreviation : abbreviations) {
+      lower.add(abbreviation.toLowerCase());
+    }
+    this.abbreviations = lower;
+  }
+  
+  @Override
+  public String[] split(String txt) {
+    
+    ArrayList<String> sentences = new ArrayList<String>();
+    int n = txt.length();
+    int start = 0;
+    
+    for (int i = 0; i < n; i++) {
+      
+      char ch = txt.charAt(i);
+      if (!isSentenceEnd(ch)) {
+        continue;
+      }
+      
+      // Find the end of the run of sentence-ending chars (e.g., "?!" or "..."), which may be padded with spaces
+      int end = i + 1;
+      int next = skipWhitespace(txt, end);
+      while (next < n && isSentenceEnd(txt.charAt(next))) {
+        end = next + 1;
+        next = skipWhitespace(txt, end);
+      }
+      
+      boolean boundary = next == n || (end < n && Character.isWhitespace(txt.charAt(end)) 
+          && !Character.isLowerCase(txt.charAt(next)) && !Character.isDigit(txt.charAt(next)));
+      if (boundary && ch == '.' && isAbbreviation(txt, i)) {
+        boundary = false;
+      }
+      
+      if (boundary) {
+        addSentence(sentences, txt, start, end);
+        start = end;
+      }
+      i = end - 1;
+    }
+    addSentence(sentences, txt, start, n);
+    
+    return sentences.toArray(new String[sentences.size()]);
+  }
+  
+  private static boolean isSentenceEnd(char ch) {
+    return ch == '.' || ch == '?' || ch == '!';
+  }
+  
+  private static int skipWhitespace(String txt, int from) {
+    while (from < txt.length() && Character.isWhitespace(txt.charAt(from))) {
+      from++;
+    }
+    return from;
+  }
+  
+  // Whether the word just before the period at periodIndex is an initial or a known abbreviation
+  private boolean isAbbreviation(String txt, int periodIndex) {
+    int end = periodIndex;
+    while (end > 0 && Character.isWhitespace(txt.charAt(end - 1))) {
+      end--;
+    }
+    int start = end;
+    while (start > 0 && Character.isLetter(txt.charAt(start - 1))) {
+      start--;
+    }
+    if (start == end) {
+      return false;
+    }
+    return end - start == 1 || abbreviations.contains(txt.substring(start, end).toLowerCase());
+  }
+  
+  private static void addSentence(ArrayList<String> sentences, String txt, int start, int end) {
+    String sentence = txt.substring(start, end).trim();
+    if (!sentence.isEmpty()) {
+      sentences.add(sentence);
+    }
+  }
+  
+}
@@ -0,0 +1,42 @@
+package io.github.crew102.rapidrake.tagging;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Splits a document into sentences, each of which is then POS tagged on its own. Sentence boundaries don't change 
+ * which phrases RAKE finds, only the context the tagger sees, so a cheaper splitter trades a little tagging accuracy 
+ * for speed. Implementations must be safe to call from many threads at once.
+ * 
+ * @see io.github.crew102.rapidrake.opennlpUtils.SentDetectorPool
+ * @see RuleBasedSentenceSplitter
+ * @see #NONE
+ */
+public interface SentenceSplitter {
+  
+  /**
+   * A splitter that treats the whole document as one sentence, so the tagger sees all of a document's tokens at once.
+   * This costs nothing, but a maxent tagger is less accurate on very long "sentences".
+   */
+  SentenceSplitter NONE = txt -> new String[] {txt};
+  
+  /**
+   * Split a document into sentences.
+   * 
+   * @param txt the document, with punctuation already padded with spaces
+   * @return the sentences
+   */
+  String[] split(String txt);
+  
+  /**
+   * Split a document into sentences, reporting any time spent waiting for a lock. Splitters that never block don't 
+   * need to override this.
+   * 
+   * @param txt the document
+   * @param lockWait if non-null, given the time (in nanoseconds) spent waiting for a lock, if the splitter took one
+   * @return the sentences
+   */
+  default String[] split(String txt, LongConsumer lockWait) {
+    return split(txt);
+  }
+  
+}
@@ -0,0 +1,34 @@
+package io.github.crew102.rapidrake.tagging;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Assigns part-of-speech tags to tokens. Implementations must be safe to call from many threads at once.
+ * 
+ * @see io.github.crew102.rapidrake.opennlpUtils.TaggerPool
+ * @see LexiconTagger
+ */
+public interface TokenTagger {
+  
+  /**
+   * Tag a sequence of tokens.
+   * 
+   * @param tokens the tokens, either those of a single sentence or, for taggers that tag each token on its own, those 
+   *        of a whole document
+   * @return the POS tags, one per token
+   */
+  String[] tag(String[] tokens);
+  
+  /**
+   * Tag a sequence of tokens, reporting any time spent waiting for a lock. Taggers that never block don't need to 
+   * override this.
+   * 
+   * @param tokens the tokens
+   * @param lockWait if non-null, given the time (in nanoseconds) spent waiting for a lock, if the tagger took one
+   * @return the POS tags, one per token
+   */
+  default String[] tag(String[] tokens, LongConsumer lockWait) {
+    return tag(tokens);
+  }
+  
+}
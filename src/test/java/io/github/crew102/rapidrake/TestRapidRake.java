@@ -1,24 +1,66 @@
 package io.github.crew102.rapidrake;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
 
 import opennlp.tools.stemmer.snowball.SnowballStemmer;
+import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetectorME;
+import opennlp.tools.sentdetect.SentenceModel;
 
+import io.github.crew102.rapidrake.codec.EncodedResult;
+import io.github.crew102.rapidrake.codec.ResultReader;
+import io.github.crew102.rapidrake.codec.ResultWriter;
+import io.github.crew102.rapidrake.corpus.MappedCorpus;
+import io.github.crew102.rapidrake.corpus.RakeProcessor;
 import io.github.crew102.rapidrake.data.SmartWords;
+import io.github.crew102.rapidrake.index.KeywordIndexReader;
+import io.github.crew102.rapidrake.index.KeywordIndexWriter;
+import io.github.crew102.rapidrake.index.Postings;
+import io.github.crew102.rapidrake.index.SegmentMerger;
 import io.github.crew102.rapidrake.model.*;
+import io.github.crew102.rapidrake.opennlpUtils.CachingStemmer;
+import io.github.crew102.rapidrake.opennlpUtils.ModelRegistry;
 import io.github.crew102.rapidrake.opennlpUtils.Tagger;
 import io.github.crew102.rapidrake.opennlpUtils.SentDetector;
+import io.github.crew102.rapidrake.opennlpUtils.SentDetectorPool;
+import io.github.crew102.rapidrake.opennlpUtils.TaggerPool;
+import io.github.crew102.rapidrake.tagging.LexiconTagger;
+import io.github.crew102.rapidrake.tagging.RuleBasedSentenceSplitter;
+import io.github.crew102.rapidrake.tagging.SentenceSplitter;
+import io.github.crew102.rapidrake.tagging.TokenTagger;
 
 public class TestRapidRake {
   
   private static String delims = "[-,.?():;\"!/]";
   private static String posUrl = "model-bin/en-pos-maxent.bin";
   private static String sentUrl = "model-bin/en-sent.bin";
+  private static String[] verbPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+  private static String dogsTxt = "dogs are great, don't you agree? I love dogs, especially big dogs";
+
+  // SMART stop words, verbs as stop POS tags, no minimum word length, stemming and the default delimiters
+  private static RakeParams verbParams() {
+    return new RakeParams(new SmartWords().getSmartWords(), verbPOS, 0, true, delims);
+  }
     
     @Test
     public void testMinAlg() throws java.io.IOException {
@@ -133,6 +175,34 @@ public class TestRapidRake {
       assertFalse(Arrays.equals(res.getStemmedKeywords(), frenchRes.getStemmedKeywords()));
     }
 
+  @Test
+  public void testDelimitersInsideTokens() {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String txtEl = "Don't you agree? state-of-the-art dogs, a'b'c 'quoted' -dashed- it's the state-of-the-art's " +
+                   "best don't ' x-' -y ' a' 'b";
+    String[] charClasses = {"[-,.?():;\"!/' ]", "['-]", "[' ]", "[ ]", "[-]", "[']"};
+
+    for (String charClass : charClasses) {
+      for (boolean stem : new boolean[] {false, true}) {
+        // A regex that isn't a plain character class matches the same chars but takes the String.split route
+        RakeParams walked = new RakeParams(stopWords, new String[] {""}, 0, stem, charClass);
+        RakeParams split = new RakeParams(stopWords, new String[] {""}, 0, stem, "(?:" + charClass + ")");
+        assertTrue(walked.getPhraseDelimiters().isCharClass());
+        assertFalse(split.getPhraseDelimiters().isCharClass());
+        Result expected = new RakeAlgorithm(split).rake(txtEl);
+        Result res = new RakeAlgorithm(walked).rake(txtEl);
+        assertArrayEquals(charClass, expected.getFullKeywords(), res.getFullKeywords());
+        assertArrayEquals(charClass, expected.getStemmedKeywords(), res.getStemmedKeywords());
+        assertArrayEquals(expected.getScores(), res.getScores(), 0);
+      }
+    }
+
+    RakeParams apostrophes = new RakeParams(new String[] {"the"}, new String[] {""}, 0, false, "['.]");
+    String[] keywords = new RakeAlgorithm(apostrophes).rake("a'b'c don't the big dogs").getFullKeywords();
+    assertArrayEquals(new String[] {"a", "b", "c don", "t", "big dogs"}, keywords);
+  }
+
   @Test
   public void testSecondaryConstructor() throws java.io.IOException {
 
@@ -161,4 +231,930 @@ public class TestRapidRake {
     assertEquals("Incorrect scoring", 1, scores2[0], 0);
   }
 
+  @Test
+  public void testModelConstructorConcurrent() throws Exception {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    POSModel posModel = new Tagger(posUrl).getPosModel();
+    SentenceModel sentModel = new SentDetector(sentUrl).getSentModel();
+    final RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posModel, sentModel);
+    final String txtEl = "dogs are great, don't you agree? I love dogs, especially big dogs";
+    Result expected = rakeAlg.rake(txtEl);
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Result>> futures = new ArrayList<Future<Result>>();
+      for (int i = 0; i < 32; i++) {
+        futures.add(pool.submit(() -> rakeAlg.rake(txtEl)));
+      }
+      for (Future<Result> future : futures) {
+        Result res = future.get();
+        assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+        assertArrayEquals(expected.getScores(), res.getScores(), 0);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testModelRegistryLoadsOnce() throws Exception {
+
+    POSModel posModel = ModelRegistry.preloadPosModel(posUrl).get();
+    SentenceModel sentModel = ModelRegistry.preloadSentModel(sentUrl).get();
+
+    assertSame(posModel, new Tagger(posUrl).getPosModel());
+    assertSame(posModel, ModelRegistry.getPosModel("./" + posUrl));
+    assertSame(sentModel, new SentDetector(sentUrl).getSentModel());
+    assertNotSame(new Tagger(posUrl).getPosTagger(), new Tagger(posUrl).getPosTagger());
+
+    // A load that fails with an Error isn't cached, so asking again fails again rather than waiting forever
+    java.io.InputStream failing = new java.io.InputStream() {
+      @Override
+      public int read() {
+        throw new AssertionError("read failed");
+      }
+    };
+    for (int i = 0; i < 2; i++) {
+      try {
+        ModelRegistry.getPosModel(failing);
+        fail("Expected an AssertionError");
+      } catch (AssertionError e) {
+        assertEquals("read failed", e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testRakeAll() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posUrl, sentUrl);
+
+    List<String> txtEls = new ArrayList<String>();
+    for (int i = 0; i < 50; i++) {
+      txtEls.add("dogs are great, don't you agree? I love dogs, especially big dogs number " + i);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Result> fromPool = rakeAlg.rakeAll(txtEls, pool);
+      List<Result> fromExecutor = rakeAlg.rakeAll((Iterable<String>) txtEls, executor);
+      List<Result> fromStream = rakeAlg.rakeAll(txtEls.parallelStream()).collect(Collectors.toList());
+
+      for (int i = 0; i < txtEls.size(); i++) {
+        Result expected = rakeAlg.rake(txtEls.get(i));
+        assertArrayEquals(expected.getFullKeywords(), fromPool.get(i).getFullKeywords());
+        assertArrayEquals(expected.getFullKeywords(), fromExecutor.get(i).getFullKeywords());
+        assertArrayEquals(expected.getScores(), fromStream.get(i).getScores(), 0);
+      }
+    } finally {
+      pool.shutdown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testStopwordSetLookup() {
+
+    String[] words = new String[20000];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = "word" + i;
+    }
+    StopwordSet stopWordSet = new StopwordSet(words);
+    StringBuilder buff = new StringBuilder("the word19999 here");
+
+    assertEquals(words.length, stopWordSet.size());
+    assertTrue(stopWordSet.contains("word0"));
+    assertTrue(stopWordSet.contains(buff, 4, 13));
+    assertFalse(stopWordSet.contains(buff, 0, 3));
+    assertFalse(stopWordSet.contains("word20000"));
+  }
+
+  @Test
+  public void testCachingStemmer() {
+
+    CachingStemmer stemmer = new CachingStemmer(SnowballStemmer.ALGORITHM.ENGLISH, 2);
+    String dogStem = new SnowballStemmer(SnowballStemmer.ALGORITHM.ENGLISH).stem("dogs").toString();
+
+    assertEquals(dogStem, stemmer.stem("dogs"));
+    assertEquals(dogStem, stemmer.stem("dogs"));
+    stemmer.stem("cats");
+    stemmer.stem("birds"); // evicts "dogs"
+    assertEquals(dogStem, stemmer.stem("dogs"));
+
+    assertEquals(1, stemmer.getHits());
+    assertEquals(4, stemmer.getMisses());
+    assertSame(CachingStemmer.forCurrentThread(SnowballStemmer.ALGORITHM.FRENCH),
+               CachingStemmer.forCurrentThread(SnowballStemmer.ALGORITHM.FRENCH));
+  }
+
+  @Test
+  public void testTopK() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posUrl, sentUrl);
+    String txtEl = "dogs are great, don't you agree? I love dogs, especially big dogs";
+
+    Result top = rakeAlg.rake(txtEl, 2);
+    assertArrayEquals(new String[] {"big dogs", "dogs"}, top.getFullKeywords());
+    assertArrayEquals(new float[] {3.33f, 1.33f}, top.getScores(), 0.01f);
+
+    Result all = rakeAlg.rake(txtEl, 100);
+    assertEquals(rakeAlg.rake(txtEl).distinct().getFullKeywords().length, all.getFullKeywords().length);
+  }
+
+  @Test
+  public void testDistinctMergePolicies() {
+
+    String[] full = {"big dogs", "big dog", "great", "big dogs"};
+    String[] stemmed = {"big dog", "big dog", "great", "big dog"};
+    float[] scores = {3, 4, 1, 3};
+    Result res = new Result(full, stemmed, scores);
+
+    Result first = res.distinct(false, MergePolicy.KEEP_FIRST);
+    assertArrayEquals(new String[] {"big dogs", "big dog", "great"}, first.getFullKeywords());
+    assertArrayEquals(new int[] {2, 1, 1}, first.getCounts());
+
+    Result max = res.distinct(true, MergePolicy.KEEP_MAX);
+    assertArrayEquals(new String[] {"big dog", "great"}, max.getFullKeywords());
+    assertArrayEquals(new float[] {4, 1}, max.getScores(), 0);
+
+    Result sum = res.distinct(true, MergePolicy.SUM);
+    assertArrayEquals(new String[] {"big dogs", "great"}, sum.getFullKeywords());
+    assertArrayEquals(new float[] {10, 1}, sum.getScores(), 0);
+    assertArrayEquals(new int[] {3, 1}, sum.getCounts());
+
+    // The non-mutating variant leaves the original alone
+    assertEquals(4, res.getFullKeywords().length);
+    assertEquals(3, res.distinct().getFullKeywords().length);
+    assertNull(res.getCounts());
+  }
+
+  @Test
+  public void testDistinctWithCounts() {
+
+    String[] full = {"big dogs", "great", "big dogs"};
+    Result res = new Result(full, full.clone(), new float[] {3, 1, 3}, new int[] {2, 1, 4});
+
+    Result merged = res.distinct(false, MergePolicy.KEEP_FIRST);
+    assertArrayEquals(new int[] {6, 1}, merged.getCounts());
+
+    res.distinct();
+    assertArrayEquals(new String[] {"big dogs", "great"}, res.getFullKeywords());
+    assertArrayEquals(new int[] {6, 1}, res.getCounts());
+
+    // A result without stems merges by full keyword whether or not stems were asked for
+    for (boolean byStem : new boolean[] {false, true}) {
+      Result noStems = new Result(full, null, new float[] {3, 1, 4}).distinct(byStem, MergePolicy.KEEP_MAX);
+      assertArrayEquals(new String[] {"big dogs", "great"}, noStems.getFullKeywords());
+      assertArrayEquals(new float[] {4, 1}, noStems.getScores(), 0);
+      assertArrayEquals(new int[] {2, 1}, noStems.getCounts());
+      assertNull(noStems.getStemmedKeywords());
+    }
+  }
+
+  @Test
+  public void testRakeIncremental() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posUrl, sentUrl);
+
+    StringBuilder buff = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      buff.append("Dogs are great, don't you agree? I love dogs, especially big dogs. Cats too! ");
+    }
+    String txtEl = buff.toString();
+
+    Result expected = rakeAlg.rake(txtEl).distinct();
+    Result res = rakeAlg.rakeIncremental(new StringReader(txtEl), 100);
+
+    assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+    assertArrayEquals(expected.getScores(), res.getScores(), 0);
+    assertEquals(400, res.getCounts()[0]);
+
+    // Chunks smaller than a phrase, with no sentence ends to cut at: chunks must grow rather than split phrases, 
+    // words or surrogate pairs. Without stop POS tags, tagging context can't change the keywords.
+    StringBuilder noEnds = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      noEnds.append("memory mapped file, big dogs; cats and dogs memory mapped file\n- item one\n- ")
+            .append(i % 4 == 0 ? "averyveryverylongwordwithoutanybreaksinit " : "item two ")
+            .append(i % 5 == 0 ? "\uD83D\uDE00\uD83D\uDE00 don't stop " : "");
+    }
+    String[] noPOS = {""};
+    String[] delimSets = {delims, "[-,.?():;\"!/' ]", "(?:" + delims + ")"};
+    for (String delimSet : delimSets) {
+      RakeAlgorithm noPOSAlg = new RakeAlgorithm(new RakeParams(stopWords, noPOS, 0, true, delimSet));
+      Result noEndsExpected = noPOSAlg.rake(noEnds.toString()).distinct();
+      for (int chunkSize : new int[] {1, 5, 13, 64}) {
+        Result noEndsRes = noPOSAlg.rakeIncremental(new StringReader(noEnds.toString()), chunkSize);
+        assertArrayEquals(delimSet, noEndsExpected.getFullKeywords(), noEndsRes.getFullKeywords());
+        assertArrayEquals(noEndsExpected.getScores(), noEndsRes.getScores(), 0);
+      }
+    }
+
+    try {
+      rakeAlg.rakeIncremental(new StringReader(txtEl), 0);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testMappedCorpus() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posUrl, sentUrl);
+
+    List<String> txtEls = new ArrayList<String>();
+    for (int i = 0; i < 100; i++) {
+      txtEls.add("dogs are great, don't you agree? I love dogs, especially big dogs number " + i);
+    }
+    Path corpusFile = Files.createTempFile("rapidrake", ".txt");
+    Files.write(corpusFile, txtEls, StandardCharsets.UTF_8);
+
+    final List<Result> results = new ArrayList<Result>();
+    try (MappedCorpus corpus = new MappedCorpus(corpusFile)) {
+      long numDocs = corpus.rake(rakeAlg, (docIndex, result) -> {
+        assertEquals(results.size(), docIndex);
+        results.add(result);
+      });
+      assertEquals(txtEls.size(), numDocs);
+    } finally {
+      Files.delete(corpusFile);
+    }
+
+    for (int i = 0; i < txtEls.size(); i++) {
+      assertArrayEquals(rakeAlg.rake(txtEls.get(i)).getFullKeywords(), results.get(i).getFullKeywords());
+    }
+  }
+
+  @Test
+  public void testRakeCorpus() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, posUrl, sentUrl);
+
+    List<String> txtEls = new ArrayList<String>();
+    for (int i = 0; i < 200; i++) {
+      txtEls.add(i % 2 == 0 ? "dogs are great, don't you agree? I love big dogs" : "cats are great number " + i);
+    }
+
+    KeywordStats sequential = new KeywordStats(params.shouldStem());
+    for (String txtEl : txtEls) {
+      rakeAlg.addDocumentToStats(txtEl, sequential);
+    }
+    KeywordStats parallel;
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      parallel = rakeAlg.rakeCorpus(txtEls, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(200, parallel.getNumDocs());
+    assertEquals(100, parallel.getDocFreq("dogs"));
+    assertEquals(100, parallel.getDocFreq("cats"));
+    assertArrayEquals(sequential.toResult().getFullKeywords(), parallel.toResult().getFullKeywords());
+    assertArrayEquals(sequential.toResult().getScores(), parallel.toResult().getScores(), 0.0001f);
+    assertArrayEquals(sequential.toResult().getCounts(), parallel.toResult().getCounts());
+
+    Result weighted = parallel.toDocFreqWeightedResult(2);
+    assertEquals(2, weighted.getFullKeywords().length);
+    assertEquals("big dogs", weighted.getFullKeywords()[0]);
+  }
+
+  @Test
+  public void testResultCodecRoundTrip() throws java.io.IOException {
+
+    List<Result> results = new ArrayList<Result>();
+    for (int i = 0; i < 10; i++) {
+      results.add(new Result(new String[] {"big dogs", "dogs", "caf\u00e9 " + i}, 
+                             new String[] {"big dog", "dog", null}, new float[] {3.33f, 1.33f, i / 7f}));
+    }
+    results.add(new Result(new String[0], new String[0], new float[0]));
+    results.add(new Result(new String[] {"dogs"}, null, new float[] {Float.NaN}, new int[] {300}));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = new ResultWriter(Channels.newChannel(out), 3)) {
+      writer.writeAll(results);
+    }
+
+    try (ResultReader reader = new ResultReader(new ByteArrayInputStream(out.toByteArray()))) {
+      for (Result expected : results) {
+        Result actual = reader.read();
+        assertArrayEquals(expected.getFullKeywords(), actual.getFullKeywords());
+        assertArrayEquals(expected.getStemmedKeywords(), actual.getStemmedKeywords());
+        assertArrayEquals(expected.getScores(), actual.getScores(), 0);
+        assertArrayEquals(expected.getCounts(), actual.getCounts());
+      }
+      assertNull(reader.next());
+    }
+
+    try (ResultReader reader = new ResultReader(new ByteArrayInputStream(out.toByteArray()))) {
+      EncodedResult encoded = reader.next();
+      assertEquals(3, encoded.size());
+      assertEquals(3.33f, encoded.getScore(0), 0);
+      assertEquals("caf\u00e9 0", encoded.getFullKeyword(2));
+      assertFalse(encoded.hasCounts());
+    }
+  }
+
+  @Test
+  public void testRakeMetrics() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams params = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params, new Tagger(posUrl).getPosTagger(), 
+                                              new SentDetector(sentUrl).getSentDetector());
+    String txtEl = "dogs are great, don't you agree? I love dogs, especially big dogs";
+
+    RakeMetrics metrics = new RakeMetrics();
+    rakeAlg.setListener(metrics);
+    Result res = rakeAlg.rake(txtEl);
+    rakeAlg.rake(txtEl);
+    rakeAlg.setListener(null);
+    rakeAlg.rake(txtEl);
+
+    for (RakeStage stage : RakeStage.values()) {
+      assertEquals(2, metrics.getStageNanos(stage).getCount());
+    }
+    assertEquals(2, metrics.getLockWaitNanos().getCount());
+    assertEquals(2, metrics.getKeywords().getCount());
+    assertEquals(res.getFullKeywords().length, metrics.getKeywords().getMax());
+    assertTrue(metrics.getStemmerHits() > 0);
+    assertSame(RakeListener.NO_OP, rakeAlg.getListener());
+  }
+
+  @Test
+  public void testTaggerFreeMode() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String txtEl = "dogs are great, don't you agree? I love dogs, especially big dogs. Then it ran away.";
+    String punctuated = "Big dogs!! (Small cats?) \"state-of-the-art\" kennels; dogs: great... don't/won't agree, " + 
+                        "e.g. big-dog owners -- Mr. Fox's cats. Then it ran away?!";
+
+    // A stop POS tag that never occurs still takes the tokens through sentence detection and tagging
+    RakeParams noPOS = new RakeParams(stopWords, new String[] {""}, 0, true, delims);
+    RakeParams unusedPOS = new RakeParams(stopWords, new String[] {"XYZ"}, 0, true, delims);
+    assertFalse(noPOS.needsPOSTags());
+    assertTrue(unusedPOS.needsPOSTags());
+    RakeAlgorithm tagging = new RakeAlgorithm(unusedPOS, new TaggerPool(ModelRegistry.getPosModel(posUrl)), 
+                                              new SentDetectorPool(ModelRegistry.getSentModel(sentUrl)));
+    for (String doc : new String[] {txtEl, punctuated}) {
+      Result expected = tagging.rake(doc);
+      Result res = new RakeAlgorithm(noPOS).rake(doc);
+      assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+      assertArrayEquals(expected.getScores(), res.getScores(), 0);
+    }
+    List<String> punctKeywords = Arrays.asList(new RakeAlgorithm(noPOS).rake(punctuated).getFullKeywords());
+    assertTrue(punctKeywords.containsAll(Arrays.asList("small cats", "state", "dog owners", "fox's cats")));
+
+    String[] stopPOS = {"VB", "VBD", "VBG", "VBN", "VBP", "VBZ"};
+    RakeParams verbs = new RakeParams(stopWords, stopPOS, 0, true, delims);
+    try {
+      new RakeAlgorithm(verbs);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    LexiconTagger lexicon = LexiconTagger.englishVerbs();
+    assertArrayEquals(new String[] {"NN", "VBP", "VBD", "MD", "VBG"}, 
+                      lexicon.tag(new String[] {"Dogs", "are", "ran", "can", "applying"}));
+    Result lexRes = new RakeAlgorithm(verbs, lexicon).rake(txtEl);
+    String[] lexKeywords = {"dogs", "great", "love dogs", "big dogs"};
+    assertArrayEquals(lexKeywords, lexRes.getFullKeywords());
+  }
+
+  @Test
+  public void testSentenceSplitters() throws java.io.IOException {
+
+    RuleBasedSentenceSplitter rules = new RuleBasedSentenceSplitter();
+    String padded = TextScanner.padPunctuation("Dogs are great. Mr. Fox ran away! Did it rain?! Yes. pi is 3.14 now");
+    String[] expected = {"Dogs are great .", "Mr .  Fox ran away !", "Did it rain ?  !", "Yes .  pi is 3 . 14 now"};
+    assertArrayEquals(expected, rules.split(padded));
+    assertArrayEquals(new String[] {padded}, SentenceSplitter.NONE.split(padded));
+
+    RakeParams params = verbParams();
+    POSModel posModel = ModelRegistry.getPosModel(posUrl);
+
+    Result maxent = new RakeAlgorithm(params, posUrl, sentUrl).rake(dogsTxt);
+    for (SentenceSplitter splitter : new SentenceSplitter[] {rules, SentenceSplitter.NONE}) {
+      Result res = new RakeAlgorithm(params, new TaggerPool(posModel), splitter).rake(dogsTxt);
+      assertArrayEquals(maxent.getFullKeywords(), res.getFullKeywords());
+    }
+
+    // In a full rake, abbreviations and initials don't end the sentences the tagger sees
+    String abbrevTxt = "Mr. Fox ran away with Dr. Smith. J. R. R. Tolkien ran with big dogs, e.g. Rex! " + 
+                       "Did it rain? Yes.";
+    final List<Integer> sentLengths = new ArrayList<Integer>();
+    final TaggerPool tagger = new TaggerPool(posModel);
+    RakeAlgorithm recording = new RakeAlgorithm(params, tokens -> {
+      sentLengths.add(tokens.length);
+      return tagger.tag(tokens);
+    }, rules);
+    Result abbrevRes = recording.rake(abbrevTxt);
+    assertEquals(Arrays.asList(10, 18, 4, 2), sentLengths);
+    assertTrue(Arrays.asList(abbrevRes.getFullKeywords()).contains("big dogs"));
+    assertFalse(Arrays.asList(abbrevRes.getFullKeywords()).contains("ran"));
+
+    RakeAlgorithm unsplit = new RakeAlgorithm(params, new TaggerPool(posModel), SentenceSplitter.NONE);
+    RakeMetrics metrics = new RakeMetrics();
+    unsplit.setListener(metrics);
+    unsplit.rake(dogsTxt);
+    assertEquals(0, metrics.getStageNanos(RakeStage.SENTENCE_DETECTION).getCount());
+    assertEquals(1, metrics.getStageNanos(RakeStage.POS_TAGGING).getCount());
+
+    try {
+      new RakeAlgorithm(params, new TaggerPool(posModel), null);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testResultCache() throws java.io.IOException {
+
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(verbParams(), posUrl, sentUrl);
+    Result expected = rakeAlg.rake(dogsTxt);
+
+    ResultCache cache = new ResultCache(2, 1);
+    rakeAlg.setResultCache(cache);
+    rakeAlg.rake(dogsTxt).distinct();
+    Result res = rakeAlg.rake(dogsTxt);
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+    assertArrayEquals(expected.getScores(), res.getScores(), 0);
+
+    // Different params mustn't share results, even through the same cache
+    RakeParams noStem = new RakeParams(new SmartWords().getSmartWords(), verbPOS, 0, false, delims);
+    RakeAlgorithm noStemAlg = new RakeAlgorithm(noStem, posUrl, sentUrl);
+    noStemAlg.setResultCache(cache);
+    assertNull(noStemAlg.rake(dogsTxt).getStemmedKeywords()[0]);
+    assertEquals(2, cache.getMisses());
+
+    // The least recently used result is evicted, and a hit counts as a use
+    rakeAlg.rake(dogsTxt);
+    rakeAlg.rake("some other text");
+    assertEquals(1, cache.getEvictions());
+    assertEquals(2, cache.size());
+    rakeAlg.rake(dogsTxt);
+    assertEquals(3, cache.getHits());
+    noStemAlg.rake(dogsTxt);
+    assertEquals(4, cache.getMisses());
+    assertEquals(2, cache.getEvictions());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    rakeAlg.rake(dogsTxt);
+    assertEquals(5, cache.getMisses());
+  }
+
+  @Test
+  public void testRakeParallel() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    String[] noPOS = {""};
+    RakeAlgorithm[] rakeAlgs = {
+      new RakeAlgorithm(verbParams(), posUrl, sentUrl),
+      // No tagging, so the tokens come from a single pass
+      new RakeAlgorithm(new RakeParams(stopWords, noPOS, 0, true, delims)),
+      // Not a plain character class, so candidates are found with the regex
+      new RakeAlgorithm(new RakeParams(stopWords, noPOS, 0, true, "(?:" + delims + ")")),
+      // Apostrophes and spaces split tokens such as "don't" and "a'b'c" across chunk boundaries
+      new RakeAlgorithm(new RakeParams(stopWords, verbPOS, 0, false, "[-,.?():;\"!/' ]"), posUrl, sentUrl),
+      new RakeAlgorithm(new RakeParams(stopWords, noPOS, 0, true, "['.]"))
+    };
+
+    StringBuilder buff = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      buff.append(dogsTxt).append(" number ").append(i % 7)
+          .append(i % 5 == 0 ? " a'b'c's state-of-the-art " : " ").append(i % 3 == 0 ? ". " : " ");
+    }
+    // Besides a long document, ones with fewer sentences or tokens than there are chunks, and none at all
+    String[] txtEls = {buff.toString(), dogsTxt, "dogs", "", " . . "};
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (RakeAlgorithm rakeAlg : rakeAlgs) {
+        for (String txtEl : txtEls) {
+          Result expected = rakeAlg.rake(txtEl);
+          Result res = rakeAlg.rakeParallel(txtEl, pool);
+          assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+          assertArrayEquals(expected.getStemmedKeywords(), res.getStemmedKeywords());
+          assertArrayEquals(expected.getScores(), res.getScores(), 0);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testResultBatch() throws java.io.IOException {
+
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(verbParams(), posUrl, sentUrl);
+
+    List<String> txtEls = Arrays.asList("dogs are great, don't you agree?", "I love dogs, especially big dogs", "");
+    List<Result> expected = rakeAlg.rakeAll(txtEls);
+
+    KeywordDictionary dictionary = new KeywordDictionary();
+    ResultBatch batch = new ResultBatch(dictionary);
+    rakeAlg.rakeAll(txtEls.stream()).forEachOrdered(batch::add);
+    Result repeated = rakeAlg.rake(dogsTxt + ". Big dogs!").distinct(false, MergePolicy.KEEP_FIRST);
+    batch.add(repeated);
+
+    assertEquals(4, batch.size());
+    assertEquals(0, batch.getNumKeywords(2));
+    for (int d = 0; d < 3; d++) {
+      Result res = batch.get(d);
+      assertArrayEquals(expected.get(d).getFullKeywords(), res.getFullKeywords());
+      assertArrayEquals(expected.get(d).getStemmedKeywords(), res.getStemmedKeywords());
+      assertArrayEquals(expected.get(d).getScores(), res.getScores(), 0);
+      assertNull(res.getCounts());
+    }
+    assertArrayEquals(repeated.getFullKeywords(), batch.get(3).getFullKeywords());
+    assertArrayEquals(repeated.getCounts(), batch.get(3).getCounts());
+    assertEquals(2, batch.get(3).getCounts()[Arrays.asList(repeated.getFullKeywords()).indexOf("big dogs")]);
+
+    int dogs = dictionary.getId("dogs");
+    int[] dogsPerDoc = new int[batch.size()];
+    batch.forEachKeyword((doc, id, score) -> {
+      if (id == dogs) {
+        dogsPerDoc[doc]++;
+      }
+    });
+    assertArrayEquals(new int[] {1, 1, 0, 1}, dogsPerDoc);
+
+    // Results without stems, and enough keywords to outgrow the batch's initial arrays
+    String[] full = new String[1000];
+    float[] scores = new float[full.length];
+    for (int i = 0; i < full.length; i++) {
+      full[i] = "keyword " + (i % 100);
+      scores[i] = i;
+    }
+    Result unstemmed = new Result(full, null, scores);
+    for (int d = 0; d < 100; d++) {
+      batch.add(unstemmed);
+    }
+    Result last = batch.get(batch.size() - 1);
+    assertNull(last.getStemmedKeywords());
+    assertArrayEquals(full, last.getFullKeywords());
+    assertArrayEquals(scores, last.getScores(), 0);
+    assertEquals(dictionary.getId("keyword 42"), batch.getKeywordId(50, 142));
+    try {
+      batch.getScore(batch.size(), 0);
+      fail("Expected an IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRakeProcessor() throws Exception {
+
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(verbParams(), posUrl, sentUrl);
+
+    List<String> txtEls = new ArrayList<String>();
+    for (int i = 0; i < 50; i++) {
+      txtEls.add(dogsTxt + " number " + i);
+    }
+    List<Result> expected = rakeAlg.rakeAll(txtEls);
+    assertArrayEquals(expected.get(7).getFullKeywords(), rakeAlg.rakeAsync(txtEls.get(7)).join().getFullKeywords());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Result> results = new ArrayList<Result>();
+      RakeProcessor processor = new RakeProcessor(rakeAlg, executor, 3, (docIndex, result) -> {
+        assertEquals(results.size(), docIndex);
+        results.add(result);
+      });
+      for (String txtEl : txtEls) {
+        processor.submit(txtEl);
+        assertTrue(processor.getInFlight() <= 3);
+      }
+      processor.close();
+
+      assertEquals(0, processor.getInFlight());
+      assertEquals(expected.size(), results.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i).getFullKeywords(), results.get(i).getFullKeywords());
+        assertArrayEquals(expected.get(i).getScores(), results.get(i).getScores(), 0);
+      }
+      try {
+        processor.trySubmit("too late");
+        fail("Expected an IllegalStateException");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+
+      // While the sink is stuck on the first document, a second one takes the only permit and waits behind it
+      final CountDownLatch sinkEntered = new CountDownLatch(1);
+      final CountDownLatch sinkRelease = new CountDownLatch(1);
+      final List<Long> delivered = new ArrayList<Long>();
+      RakeProcessor blocked = new RakeProcessor(rakeAlg, executor, 1, (docIndex, result) -> {
+        if (docIndex == 0) {
+          sinkEntered.countDown();
+          try {
+            sinkRelease.await();
+          } catch (InterruptedException e) {
+            throw new java.io.InterruptedIOException();
+          }
+        }
+        delivered.add(docIndex);
+      });
+      assertEquals(0, blocked.submit(txtEls.get(0)));
+      assertTrue(sinkEntered.await(10, TimeUnit.SECONDS));
+      assertEquals(1, blocked.submit(txtEls.get(1)));
+      assertEquals(-1, blocked.trySubmit(txtEls.get(2)));
+      assertEquals(-1, blocked.trySubmit(txtEls.get(2), 10, TimeUnit.MILLISECONDS));
+      sinkRelease.countDown();
+      blocked.close();
+      assertEquals(Arrays.asList(0L, 1L), delivered);
+
+      // The sink isn't called under a lock, so it can submit more documents even when there's only one permit
+      final RakeProcessor[] chained = new RakeProcessor[1];
+      final CountDownLatch chainDone = new CountDownLatch(20);
+      chained[0] = new RakeProcessor(rakeAlg, executor, 1, (docIndex, result) -> {
+        if (docIndex < 19) {
+          try {
+            chained[0].submit(txtEls.get((int) docIndex + 1));
+          } catch (InterruptedException e) {
+            throw new java.io.InterruptedIOException();
+          }
+        }
+        chainDone.countDown();
+      });
+      chained[0].submit(txtEls.get(0));
+      assertTrue(chainDone.await(10, TimeUnit.SECONDS));
+      chained[0].close();
+
+      // Nor does it wait when an outside producer has taken the permit freed by the document being delivered
+      final RakeProcessor[] contended = new RakeProcessor[1];
+      final CountDownLatch producerDone = new CountDownLatch(1);
+      final CountDownLatch sinkSubmitted = new CountDownLatch(1);
+      final List<Long> contendedDelivered = new ArrayList<Long>();
+      contended[0] = new RakeProcessor(rakeAlg, executor, 1, (docIndex, result) -> {
+        if (docIndex == 0) {
+          try {
+            assertTrue(producerDone.await(10, TimeUnit.SECONDS));
+            assertEquals(2, contended[0].submit(txtEls.get(2)));
+          } catch (InterruptedException e) {
+            throw new java.io.InterruptedIOException();
+          }
+          sinkSubmitted.countDown();
+        }
+        contendedDelivered.add(docIndex);
+      });
+      assertEquals(0, contended[0].submit(txtEls.get(0)));
+      Thread producer = new Thread(() -> {
+        try {
+          contended[0].submit(txtEls.get(1));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        producerDone.countDown();
+      });
+      producer.start();
+      assertTrue(sinkSubmitted.await(10, TimeUnit.SECONDS));
+      producer.join();
+      contended[0].close();
+      assertEquals(Arrays.asList(0L, 1L, 2L), contendedDelivered);
+
+      // An Error thrown by the sink fails the processor rather than leaving close() waiting forever
+      RakeProcessor failing = new RakeProcessor(rakeAlg, executor, 2, (docIndex, result) -> {
+        if (docIndex == 5) {
+          throw new AssertionError("sink failed");
+        }
+      });
+      try {
+        for (String txtEl : txtEls) {
+          failing.submit(txtEl);
+        }
+      } catch (IllegalStateException e) {
+        // expected once the failure has been recorded
+      }
+      AssertionError thrown = null;
+      try {
+        failing.close();
+      } catch (AssertionError e) {
+        thrown = e;
+      }
+      assertEquals("sink failed", thrown.getMessage());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCompiledStopwords() throws java.io.IOException {
+
+    StopwordSet smartWords = SmartWords.getSmartWordSet();
+    assertSame(smartWords, SmartWords.getSmartWordSet());
+    assertEquals(new StopwordSet(new SmartWords().getSmartWords()), smartWords);
+
+    Path file = Files.createTempFile("smart", ".stop");
+    try {
+      try (java.io.OutputStream out = Files.newOutputStream(file)) {
+        smartWords.writeTo(out);
+      }
+      StopwordSet mapped = StopwordSet.readFrom(file);
+      assertEquals(smartWords, mapped);
+      assertEquals(smartWords.asList(), mapped.asList());
+      assertTrue(mapped.contains(new StringBuilder("wouldn't")));
+      try (java.io.InputStream in = Files.newInputStream(file)) {
+        assertEquals(smartWords, StopwordSet.readFrom(in));
+      }
+    } finally {
+      Files.delete(file);
+    }
+
+    RakeParams shared = new RakeParams(smartWords, verbPOS, 0, true, delims);
+    assertSame(smartWords, shared.getStopWordSet());
+    Result expected = new RakeAlgorithm(verbParams(), posUrl, sentUrl).rake(dogsTxt);
+    Result res = new RakeAlgorithm(shared, posUrl, sentUrl).rake(dogsTxt);
+    assertArrayEquals(expected.getFullKeywords(), res.getFullKeywords());
+    assertArrayEquals(expected.getScores(), res.getScores(), 0);
+
+    // Non-ASCII words and an empty set survive the round trip too
+    for (StopwordSet words : new StopwordSet[] {new StopwordSet(new String[] {"über", "naïve", "日本", "a"}), 
+                                                new StopwordSet(new String[0])}) {
+      ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+      words.writeTo(bytesOut);
+      StopwordSet read = StopwordSet.readFrom(new ByteArrayInputStream(bytesOut.toByteArray()));
+      assertEquals(words, read);
+      assertEquals(words.size(), read.size());
+    }
+    assertTrue(new StopwordSet(new String[] {"über", "日本"}).contains(new StringBuilder("x 日本"), 2, 4));
+
+    ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+    smartWords.writeTo(bytesOut);
+    byte[] truncated = Arrays.copyOf(bytesOut.toByteArray(), bytesOut.size() / 2);
+    for (byte[] bad : new byte[][] {"a\nthe\n".getBytes(StandardCharsets.UTF_8), truncated}) {
+      try {
+        StopwordSet.readFrom(new ByteArrayInputStream(bad));
+        fail("Expected an IOException");
+      } catch (java.io.IOException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testRakeProfiles() throws java.io.IOException {
+
+    String[] stopWords = new SmartWords().getSmartWords();
+    // Profiles that differ in what they tag, stem (and in which language) and split on mustn't leak into each other
+    List<RakeParams> profiles = Arrays.asList(
+        verbParams(),
+        new RakeParams(stopWords, new String[0], 0, false, delims),
+        new RakeParams(stopWords, new String[] {"NN"}, 4, true, delims),
+        new RakeParams(stopWords, verbPOS, 0, true, delims, SnowballStemmer.ALGORITHM.FRENCH),
+        new RakeParams(stopWords, verbPOS, 0, true, "[-,.?():;\"!/' ]"));
+    POSModel posModel = new Tagger(posUrl).getPosModel();
+    SentenceModel sentModel = new SentDetector(sentUrl).getSentModel();
+    RakeProfiles rakeProfiles = new RakeProfiles(profiles, posModel, sentModel);
+
+    String[] txtEls = {dogsTxt + ". Cats went away quickly", "dependent dogs. dependable dogs", ""};
+    for (String txtEl : txtEls) {
+      List<Result> results = rakeProfiles.rake(txtEl);
+      assertEquals(profiles.size(), results.size());
+      for (int i = 0; i < profiles.size(); i++) {
+        Result expected = new RakeAlgorithm(profiles.get(i), posModel, sentModel).rake(txtEl);
+        assertArrayEquals(expected.getFullKeywords(), results.get(i).getFullKeywords());
+        assertArrayEquals(expected.getStemmedKeywords(), results.get(i).getStemmedKeywords());
+        assertArrayEquals(expected.getScores(), results.get(i).getScores(), 0);
+      }
+    }
+
+    // Without stop POS tags no tagger or splitter is needed
+    List<RakeParams> untagged = Arrays.asList(profiles.get(1), 
+                                              new RakeParams(stopWords, new String[0], 4, true, delims));
+    RakeProfiles untaggedProfiles = new RakeProfiles(untagged, (TokenTagger) null, (SentenceSplitter) null);
+    List<Result> untaggedResults = untaggedProfiles.rake(dogsTxt);
+    for (int i = 0; i < untagged.size(); i++) {
+      assertArrayEquals(new RakeAlgorithm(untagged.get(i)).rake(dogsTxt).getFullKeywords(), 
+                        untaggedResults.get(i).getFullKeywords());
+    }
+
+    try {
+      new RakeProfiles(new ArrayList<RakeParams>(), posModel, sentModel);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testKeywordIndex() throws java.io.IOException {
+
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(verbParams(), posUrl, sentUrl);
+
+    List<String> txtEls = Arrays.asList("dogs are great, don't you agree?", "I love dogs, especially big dogs",
+                                        "big cats and big dogs", "dogged determination", "cats");
+    List<Result> results = rakeAlg.rakeAll(txtEls);
+
+    Path dir = Files.createTempDirectory("index");
+    Path all = dir.resolve("all.seg");
+    Path first = dir.resolve("first.seg");
+    Path second = dir.resolve("second.seg");
+    Path merged = dir.resolve("merged.seg");
+    Path repeatedSeg = dir.resolve("repeated.seg");
+    Path tiedFirst = dir.resolve("tied-first.seg");
+    Path tiedSecond = dir.resolve("tied-second.seg");
+    Path tiedMerged = dir.resolve("tied-merged.seg");
+    Path tiedReversed = dir.resolve("tied-reversed.seg");
+    try {
+      KeywordIndexWriter writer = new KeywordIndexWriter();
+      for (int i = 0; i < results.size(); i++) {
+        writer.add(i, results.get(i));
+      }
+      writer.write(all);
+      writer.clear();
+      for (int i = 0; i < results.size(); i++) {
+        writer.add(i, results.get(i));
+        if (i == 1) {
+          writer.write(first);
+          writer.clear();
+        }
+      }
+      writer.write(second);
+      SegmentMerger.merge(Arrays.asList(first, second), merged);
+
+      // Adding a result with repeated keywords indexes each once but leaves the result as it was
+      String[] repeated = {"cats", "dogs", "cats"};
+      Result repeatedRes = new Result(repeated, repeated.clone(), new float[] {1, 1, 1});
+      KeywordIndexWriter repeatedWriter = new KeywordIndexWriter();
+      repeatedWriter.add(0, repeatedRes);
+      assertArrayEquals(new String[] {"cats", "dogs", "cats"}, repeatedRes.getFullKeywords());
+      assertEquals(3, repeatedRes.getScores().length);
+      repeatedWriter.write(repeatedSeg);
+      try (KeywordIndexReader reader = new KeywordIndexReader(repeatedSeg)) {
+        assertEquals(2, reader.getNumPostings());
+      }
+
+      for (Path segment : Arrays.asList(all, merged)) {
+        try (KeywordIndexReader reader = new KeywordIndexReader(segment)) {
+          Postings dogs = reader.getPostings("dogs");
+          assertArrayEquals(new long[] {1, 0}, dogs.getDocIds());
+          assertArrayEquals(new float[] {1.5f, 1}, dogs.getScores(), 0);
+          Postings bigDogs = reader.getPostings("big dogs", 1);
+          assertEquals(1, bigDogs.size());
+          assertEquals(2, bigDogs.getDocId(0));
+          assertTrue(bigDogs.getScore(0) >= reader.getPostings("big dogs").getScore(1));
+          assertEquals(0, reader.getPostings("birds").size());
+          assertEquals(-1, reader.find("birds"));
+          assertEquals(Arrays.asList("dogged determination", "dogs"), reader.getKeywordsWithPrefix("dog", 10));
+          assertEquals(8, reader.getNumPostings());
+        }
+      }
+
+      // Postings with the same score keep their segments' order when merged, whichever doc ids they have
+      KeywordIndexWriter tiedWriter = new KeywordIndexWriter();
+      String[] tied = {"tied dogs"};
+      tiedWriter.add(20, new Result(tied, tied, new float[] {2}));
+      tiedWriter.add(10, new Result(tied, tied, new float[] {2}));
+      tiedWriter.write(tiedFirst);
+      tiedWriter.clear();
+      tiedWriter.add(5, new Result(tied, tied, new float[] {2}));
+      tiedWriter.add(30, new Result(tied, tied, new float[] {3}));
+      tiedWriter.add(15, new Result(new String[] {"other"}, new String[] {"other"}, new float[] {2}));
+      tiedWriter.write(tiedSecond);
+      SegmentMerger.merge(Arrays.asList(tiedFirst, tiedSecond), tiedMerged);
+      SegmentMerger.merge(Arrays.asList(tiedSecond, tiedFirst), tiedReversed);
+      try (KeywordIndexReader reader = new KeywordIndexReader(tiedMerged)) {
+        assertArrayEquals(new long[] {30, 20, 10, 5}, reader.getPostings("tied dogs").getDocIds());
+        assertArrayEquals(new long[] {30, 20}, reader.getPostings("tied dogs", 2).getDocIds());
+        assertEquals(2, reader.getNumKeywords());
+      }
+      try (KeywordIndexReader reader = new KeywordIndexReader(tiedReversed)) {
+        assertArrayEquals(new long[] {30, 5, 20, 10}, reader.getPostings("tied dogs").getDocIds());
+      }
+    } finally {
+      for (Path segment : Arrays.asList(all, first, second, merged, repeatedSeg, tiedFirst, tiedSecond, tiedMerged, 
+                                        tiedReversed)) {
+        Files.deleteIfExists(segment);
+      }
+      Files.delete(dir);
+    }
+  }
+
 }
@@ -0,0 +1,79 @@
+package io.github.crew102.rapidrake.corpus;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import io.github.crew102.rapidrake.RakeAlgorithm;
+import io.github.crew102.rapidrake.data.SmartWords;
+import io.github.crew102.rapidrake.model.RakeParams;
+import io.github.crew102.rapidrake.model.Result;
+
+public class TestMappedCorpus {
+
+  private static String delims = "[-,.?():;\"!/]";
+
+  private static List<Result> rakeCorpus(Path corpusFile, long windowSize, RakeAlgorithm rakeAlg)
+      throws java.io.IOException {
+
+    final List<Result> results = new ArrayList<Result>();
+    try (MappedCorpus corpus = new MappedCorpus(corpusFile, (byte) '\n', StandardCharsets.UTF_8, windowSize)) {
+      long numDocs = corpus.rake(rakeAlg, (docIndex, result) -> {
+        assertEquals(results.size(), docIndex);
+        results.add(result);
+      });
+      assertEquals(results.size(), numDocs);
+    }
+    return results;
+  }
+
+  @Test
+  public void testSmallWindows() throws java.io.IOException {
+
+    RakeParams params = new RakeParams(new SmartWords().getSmartWords(), new String[] {""}, 0, true, delims);
+    RakeAlgorithm rakeAlg = new RakeAlgorithm(params);
+
+    // Each document fits in a 16 byte window along with its delimiter, but most straddle the end of one, some in the
+    // middle of a multi-byte character
+    List<String> txtEls = Arrays.asList("big dogs", "café crème", "naïve dogs", "", "日本 big cats", "dogs, cats\r",
+                                        "crème brûlée", "x", "über große", "smörgåsbord", "naïve café");
+    StringBuilder contents = new StringBuilder();
+    for (String txtEl : txtEls) {
+      assertTrue(txtEl.getBytes(StandardCharsets.UTF_8).length < 16);
+      contents.append(txtEl).append('\n');
+    }
+    contents.append("last dogs");
+    Path corpusFile = Files.createTempFile("rapidrake", ".txt");
+    Files.write(corpusFile, contents.toString().getBytes(StandardCharsets.UTF_8));
+
+    try {
+      List<Result> expected = rakeCorpus(corpusFile, 1L << 30, rakeAlg);
+      List<Result> res = rakeCorpus(corpusFile, 16, rakeAlg);
+      assertEquals(txtEls.size() + 1, expected.size());
+      assertEquals(expected.size(), res.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i).getFullKeywords(), res.get(i).getFullKeywords());
+        assertArrayEquals(expected.get(i).getScores(), res.get(i).getScores(), 0);
+      }
+      assertArrayEquals(new String[] {"crème brûlée"}, res.get(6).getFullKeywords());
+      assertArrayEquals(new String[] {"dogs", "cats"}, res.get(5).getFullKeywords());
+
+      // A document that doesn't fit in a window is an error rather than being split
+      try {
+        rakeCorpus(corpusFile, 8, rakeAlg);
+        fail("Expected an IOException");
+      } catch (java.io.IOException e) {
+        // expected
+      }
+    } finally {
+      Files.delete(corpusFile);
+    }
+  }
+
+}